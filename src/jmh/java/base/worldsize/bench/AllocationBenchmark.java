@@ -0,0 +1,42 @@
+package base.worldsize.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Steady-state wrapping paths that must not allocate: a biome query far
+ * outside the canonical square (wrap plus biome atlas) and origin() on a
+ * feature placed at an alias position.
+ *
+ * The build's checkAllocation task runs after ./gradlew jmh and fails when
+ * gc.alloc.rate.norm of any of these exceeds its threshold (see build.gradle).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AllocationBenchmark {
+
+    @Param({"getNoiseBiome.torus", "featureOrigin.alias"})
+    public String operation;
+
+    private LongSupplier call;
+
+    @Setup
+    public void setup() {
+        this.call = KnotBootstrap.world().apply(this.operation);
+    }
+
+    @Benchmark
+    public long call() {
+        return this.call.getAsLong();
+    }
+}
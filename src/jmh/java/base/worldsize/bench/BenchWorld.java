@@ -0,0 +1,246 @@
+package base.worldsize.bench;
+
+import base.worldsize.TorusChunkGenerator;
+import base.worldsize.TorusContext;
+import com.mojang.serialization.Lifecycle;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.StructureManager;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.biome.Climate;
+import net.minecraft.world.level.biome.MultiNoiseBiomeSource;
+import net.minecraft.world.level.biome.MultiNoiseBiomeSourceParameterList;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.PalettedContainerFactory;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.NoiseSettings;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.WorldGenerationContext;
+import net.minecraft.world.level.levelgen.blending.Blender;
+import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
+import net.minecraft.world.level.levelgen.feature.configurations.NoneFeatureConfiguration;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A bootstrapped overworld (vanilla registries, fixed seed) with a torus
+ * generator and a plain noise generator side by side. Loaded through Knot by
+ * {@link KnotBootstrap}; benchmarks look operations up by name and call them
+ * as LongSuppliers (the returned value only feeds JMH's dead-code guard).
+ *
+ * There is no server, so structures are absent: the StructureManager answers
+ * every lookup with "no starts", which is also what keeps chunks eligible for
+ * the template cache.
+ */
+public final class BenchWorld implements Function<String, LongSupplier> {
+
+    public static final long SEED = 7_271_001L;
+
+    private static final ChunkPos CANONICAL = new ChunkPos(3, 5);
+
+    private final Registry<Biome> biomes;
+    private final RandomState randomState;
+    private final LevelHeightAccessor heightAccessor;
+    private final PalettedContainerFactory containers;
+    private final StructureManager structures = new NoStructures();
+
+    private final TorusChunkGenerator torus;
+    private final NoiseBasedChunkGenerator vanilla;
+    private final BiomeSource vanillaBiomes;
+    private final ChunkPos alias;
+
+    public BenchWorld() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        HolderLookup.Provider lookup = VanillaRegistries.createLookup();
+        MappedRegistry<Biome> biomeRegistry = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        lookup.lookupOrThrow(Registries.BIOME).listElements()
+                .forEach(biome -> Registry.register(biomeRegistry, biome.key(), biome.value()));
+        biomeRegistry.freeze();
+        this.biomes = biomeRegistry;
+
+        Holder<NoiseGeneratorSettings> settings = lookup.lookupOrThrow(Registries.NOISE_SETTINGS)
+                .getOrThrow(NoiseGeneratorSettings.OVERWORLD);
+        NoiseSettings noise = settings.value().noiseSettings();
+        this.randomState = RandomState.create(settings.value(), lookup.lookupOrThrow(Registries.NOISE), SEED);
+        this.heightAccessor = LevelHeightAccessor.create(noise.minY(), noise.height());
+        this.containers = PalettedContainerFactory.create(new RegistryAccess.ImmutableRegistryAccess(List.of(biomeRegistry)));
+
+        this.torus = new TorusChunkGenerator(overworldBiomes(), settings,
+                TorusContext.DEFAULT.sizeChunksX(), TorusContext.DEFAULT.sizeChunksZ());
+        this.vanilla = new NoiseBasedChunkGenerator(overworldBiomes(), settings);
+        this.vanillaBiomes = this.vanilla.getBiomeSource();
+
+        // Several laps out, on both axes and on the negative side
+        TorusContext context = this.torus.torus();
+        this.alias = new ChunkPos(CANONICAL.x + 3 * context.sizeChunksX(), CANONICAL.z - 2 * context.sizeChunksZ());
+    }
+
+    private MultiNoiseBiomeSource overworldBiomes() {
+        return MultiNoiseBiomeSource.createFromList(new MultiNoiseBiomeSourceParameterList(
+                MultiNoiseBiomeSourceParameterList.Preset.OVERWORLD, this.biomes).parameters());
+    }
+
+    @Override
+    public LongSupplier apply(String operation) {
+        return switch (operation) {
+            case "getNoiseBiome.vanilla" -> biomeLookup(this.vanillaBiomes, 0);
+            case "getNoiseBiome.torus" -> biomeLookup(this.torus.getBiomeSource(), 7 * TorusContext.DEFAULT.sizeBlocksX() / 4);
+
+            case "createBiomes.canonical" -> createBiomes(this.torus, CANONICAL);
+            case "createBiomes.alias" -> createBiomes(this.torus, this.alias);
+            case "createBiomes.vanilla" -> createBiomes(this.vanilla, CANONICAL);
+
+            case "fillFromNoise.canonical" -> cold(fillFromNoise(this.torus, CANONICAL));
+            case "fillFromNoise.alias" -> fillFromNoise(this.torus, this.alias);
+            case "fillFromNoise.vanilla" -> fillFromNoise(this.vanilla, CANONICAL);
+
+            case "buildSurface.canonical" -> buildSurface(CANONICAL);
+            case "buildSurface.alias" -> buildSurface(this.alias);
+
+            case "getBaseHeight.canonical" -> cold(baseHeight(this.torus, CANONICAL));
+            case "getBaseHeight.alias" -> baseHeight(this.torus, this.alias);
+            case "getBaseHeight.vanilla" -> baseHeight(this.vanilla, CANONICAL);
+
+            case "featureOrigin.alias" -> featureOrigin(this.alias);
+
+            default -> throw new IllegalArgumentException("Unknown benchmark operation " + operation);
+        };
+    }
+
+    // =========================================================================
+    // Operations
+    // =========================================================================
+
+    /** Walks a 64×64 quart square (one y level per lap), starting at quart offset. */
+    private LongSupplier biomeLookup(BiomeSource source, int offset) {
+        Climate.Sampler sampler = this.randomState.sampler();
+        int[] cursor = new int[1];
+        return () -> {
+            int i = cursor[0]++;
+            int x = offset + (i & 63);
+            int z = offset + ((i >> 6) & 63);
+            int y = (i >> 12) & 15;
+            return System.identityHashCode(source.getNoiseBiome(x, y, z, sampler));
+        };
+    }
+
+    /**
+     * A canonical chunk is generated once per world; every later call would be
+     * served from the generator's caches. Clearing them first keeps each
+     * operation the first one (the clear itself is a handful of stores).
+     */
+    private LongSupplier cold(LongSupplier operation) {
+        return () -> {
+            this.torus.clearCaches();
+            return operation.getAsLong();
+        };
+    }
+
+    private LongSupplier createBiomes(ChunkGenerator generator, ChunkPos pos) {
+        return () -> checksum(generator.createBiomes(this.randomState, Blender.empty(), this.structures, newChunk(pos)).join());
+    }
+
+    private LongSupplier fillFromNoise(ChunkGenerator generator, ChunkPos pos) {
+        return () -> checksum(generator.fillFromNoise(Blender.empty(), this.randomState, this.structures, newChunk(pos)).join());
+    }
+
+    /**
+     * Surface pass of the torus generator over one prepared (biomes + noise)
+     * chunk, through its region-less overload — the WorldGenRegion overload
+     * needs a live ServerLevel. The canonical chunk is surfaced once first, so
+     * an alias copies its result the way every lap after the first does; the
+     * canonical chunk itself always runs the surface rules.
+     */
+    private LongSupplier buildSurface(ChunkPos pos) {
+        ChunkAccess canonical = preparedChunk(CANONICAL);
+        surface(canonical);
+        ChunkAccess chunk = pos.equals(CANONICAL) ? canonical : preparedChunk(pos);
+        return () -> {
+            surface(chunk);
+            return checksum(chunk);
+        };
+    }
+
+    private ChunkAccess preparedChunk(ChunkPos pos) {
+        ChunkAccess chunk = newChunk(pos);
+        this.torus.createBiomes(this.randomState, Blender.empty(), this.structures, chunk).join();
+        this.torus.fillFromNoise(Blender.empty(), this.randomState, this.structures, chunk).join();
+        return chunk;
+    }
+
+    private void surface(ChunkAccess chunk) {
+        this.torus.buildSurface(chunk, new WorldGenerationContext(this.torus, chunk), this.randomState, this.structures,
+                new BiomeManager(chunk, BiomeManager.obfuscateSeed(SEED)), this.biomes);
+    }
+
+    /** All 256 columns of a chunk per operation. */
+    private LongSupplier baseHeight(ChunkGenerator generator, ChunkPos pos) {
+        return () -> {
+            long sum = 0;
+            for (int dz = 0; dz < 16; dz++) {
+                for (int dx = 0; dx < 16; dx++) {
+                    sum += generator.getBaseHeight(pos.getBlockX(dx), pos.getBlockZ(dz),
+                            Heightmap.Types.WORLD_SURFACE_WG, this.heightAccessor, this.randomState);
+                }
+            }
+            return sum;
+        };
+    }
+
+    /**
+     * origin() of a feature placed in an alias chunk. Decoration places features
+     * with the torus generator's delegate; both carry the same torus context,
+     * which is all the wrap reads. The level is never read here.
+     */
+    private LongSupplier featureOrigin(ChunkPos pos) {
+        FeaturePlaceContext<NoneFeatureConfiguration> context = new FeaturePlaceContext<>(Optional.empty(), null,
+                this.torus, RandomSource.create(SEED), pos.getBlockAt(8, 64, 8), NoneFeatureConfiguration.INSTANCE);
+        return () -> context.origin().getX();
+    }
+
+    private ProtoChunk newChunk(ChunkPos pos) {
+        return new ProtoChunk(pos, UpgradeData.EMPTY, this.heightAccessor, this.containers, null);
+    }
+
+    private static long checksum(ChunkAccess chunk) {
+        return chunk.getHeight(Heightmap.Types.WORLD_SURFACE_WG, 8, 8);
+    }
+
+    /** Worldgen without structures: every start lookup is empty. */
+    private static final class NoStructures extends StructureManager {
+
+        NoStructures() {
+            super(null, null, null);
+        }
+
+        @Override
+        public List<StructureStart> startsForStructure(ChunkPos pos, Predicate<Structure> predicate) {
+            return List.of();
+        }
+    }
+}
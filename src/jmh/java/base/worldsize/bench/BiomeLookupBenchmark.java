@@ -0,0 +1,41 @@
+package base.worldsize.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Multi-noise getNoiseBiome() through the torus mixin path versus vanilla.
+ *
+ * - vanilla: a biome source without a torus context, queried unwrapped.
+ * - torus:   the torus generator's biome source, queried far outside the
+ *            canonical square — wrap plus biome atlas once warmed up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BiomeLookupBenchmark {
+
+    @Param({"vanilla", "torus"})
+    public String path;
+
+    private LongSupplier lookup;
+
+    @Setup
+    public void setup() {
+        this.lookup = KnotBootstrap.world().apply("getNoiseBiome." + this.path);
+    }
+
+    @Benchmark
+    public long getNoiseBiome() {
+        return this.lookup.getAsLong();
+    }
+}
@@ -0,0 +1,67 @@
+package base.worldsize.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * TorusChunkGenerator stages for a canonical chunk versus one of its aliases.
+ *
+ * Each createBiomes / fillFromNoise operation generates a fresh ProtoChunk;
+ * buildSurface re-runs the surface pass over one prepared chunk; getBaseHeight
+ * walks the 256 columns of the chunk. Caches (template, surface, atlas, base
+ * heights) are warm after the first iterations, so the alias numbers are the
+ * steady-state cost of every lap after the first. The canonical fillFromNoise
+ * and getBaseHeight clear the generator's caches before each operation, so
+ * they stay the cost of generating a wrap class the first time (the biome
+ * atlas stays warm). {@link VanillaStageBenchmark} has the uncached baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChunkStageBenchmark {
+
+    @Param({"canonical", "alias"})
+    public String chunk;
+
+    private LongSupplier createBiomes;
+    private LongSupplier fillFromNoise;
+    private LongSupplier buildSurface;
+    private LongSupplier getBaseHeight;
+
+    @Setup
+    public void setup() {
+        this.createBiomes = KnotBootstrap.world().apply("createBiomes." + this.chunk);
+        this.fillFromNoise = KnotBootstrap.world().apply("fillFromNoise." + this.chunk);
+        this.buildSurface = KnotBootstrap.world().apply("buildSurface." + this.chunk);
+        this.getBaseHeight = KnotBootstrap.world().apply("getBaseHeight." + this.chunk);
+    }
+
+    @Benchmark
+    public long createBiomes() {
+        return this.createBiomes.getAsLong();
+    }
+
+    @Benchmark
+    public long fillFromNoise() {
+        return this.fillFromNoise.getAsLong();
+    }
+
+    @Benchmark
+    public long buildSurface() {
+        return this.buildSurface.getAsLong();
+    }
+
+    @Benchmark
+    public long getBaseHeight() {
+        return this.getBaseHeight.getAsLong();
+    }
+}
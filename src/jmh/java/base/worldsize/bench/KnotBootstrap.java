@@ -0,0 +1,39 @@
+package base.worldsize.bench;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.loader.impl.launch.knot.Knot;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Starts Fabric's Knot class loader inside a JMH fork.
+ *
+ * The mod only works with its mixins applied, and mixins are only applied to
+ * classes loaded through Knot. Benchmarks therefore never touch Minecraft or
+ * mod classes directly: {@link BenchWorld} is loaded through Knot and handed
+ * back behind JDK interfaces, which both class loaders share.
+ */
+final class KnotBootstrap {
+
+    private static Function<String, LongSupplier> world;
+
+    private KnotBootstrap() {
+    }
+
+    /** The shared benchmark world of this fork, created on first use. */
+    @SuppressWarnings("unchecked")
+    static synchronized Function<String, LongSupplier> world() {
+        if (world == null) {
+            ClassLoader knot = new Knot(EnvType.SERVER).init(new String[0]);
+            Thread.currentThread().setContextClassLoader(knot);
+            try {
+                Class<?> worldClass = Class.forName("base.worldsize.bench.BenchWorld", true, knot);
+                world = (Function<String, LongSupplier>) worldClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create the benchmark world inside Knot", e);
+            }
+        }
+        return world;
+    }
+}
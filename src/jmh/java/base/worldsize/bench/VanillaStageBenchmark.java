@@ -0,0 +1,50 @@
+package base.worldsize.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Uncached baseline: a plain NoiseBasedChunkGenerator with the same settings,
+ * biome preset and seed, generating the canonical chunk of
+ * {@link ChunkStageBenchmark}. This is what the first chunk of every wrap
+ * class costs before any torus cache can help.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VanillaStageBenchmark {
+
+    private LongSupplier createBiomes;
+    private LongSupplier fillFromNoise;
+    private LongSupplier getBaseHeight;
+
+    @Setup
+    public void setup() {
+        this.createBiomes = KnotBootstrap.world().apply("createBiomes.vanilla");
+        this.fillFromNoise = KnotBootstrap.world().apply("fillFromNoise.vanilla");
+        this.getBaseHeight = KnotBootstrap.world().apply("getBaseHeight.vanilla");
+    }
+
+    @Benchmark
+    public long createBiomes() {
+        return this.createBiomes.getAsLong();
+    }
+
+    @Benchmark
+    public long fillFromNoise() {
+        return this.fillFromNoise.getAsLong();
+    }
+
+    @Benchmark
+    public long getBaseHeight() {
+        return this.getBaseHeight.getAsLong();
+    }
+}
@@ -0,0 +1,90 @@
+package base.worldsize.bench;
+
+import base.worldsize.TorusContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the torus wrap arithmetic, against the floorMod it replaced.
+ *
+ * 64 and 256 chunks take the power-of-two (bitmask) path, 100 chunks the
+ * remainder path. TorusContext is plain Java, so this runs without Knot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WrapBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"64", "100", "256"})
+    public int sizeChunks;
+
+    private TorusContext torus;
+    private int sizeBlocks;
+    private final int[] blocks = new int[BATCH];
+    private final int[] chunks = new int[BATCH];
+    private final double[] positions = new double[BATCH];
+
+    @Setup
+    public void setup() {
+        this.torus = new TorusContext(this.sizeChunks, this.sizeChunks);
+        this.sizeBlocks = this.sizeChunks * 16;
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH; i++) {
+            this.blocks[i] = random.nextInt(-1_000_000, 1_000_000);
+            this.chunks[i] = this.blocks[i] >> 4;
+            this.positions[i] = this.blocks[i] + random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int wrapBlock() {
+        int sum = 0;
+        for (int block : this.blocks) {
+            sum += this.torus.wrapBlockX(block);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int wrapChunk() {
+        int sum = 0;
+        for (int chunk : this.chunks) {
+            sum += this.torus.wrapChunkX(chunk);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double wrapCoordinate() {
+        double sum = 0;
+        for (double position : this.positions) {
+            sum += this.torus.wrapCoordinateX(position);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int floorModBaseline() {
+        int sum = 0;
+        for (int block : this.blocks) {
+            sum += Math.floorMod(block, this.sizeBlocks);
+        }
+        return sum;
+    }
+}
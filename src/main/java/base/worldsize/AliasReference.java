@@ -0,0 +1,157 @@
+package base.worldsize;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.Clearable;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.List;
+
+/**
+ * The stored form of a deduplicated alias chunk: a stub naming its canonical
+ * chunk instead of a full copy of the same blocks.
+ *
+ * An alias is NOT regenerated when it is loaded again. Its final blocks
+ * include what neighbouring chunks' features spilled into it, and a chunk
+ * regenerated next to neighbours that are already saved gets none of that
+ * spill back. Instead the stub is resolved against the canonical chunk's
+ * saved data, moved to the alias position (see ChunkMapMixin).
+ *
+ * A stub is only written when that saved data holds exactly the alias's
+ * blocks ({@link #canReference}); otherwise the alias is saved in full.
+ *
+ * The stub is resolved against the canonical chunk's data as it is saved at
+ * load time, which may have changed since. Chunks with block entities that
+ * hold items are therefore never stubbed, and items found in the canonical
+ * data are dropped when it is moved ({@link #relocate}), so an alias never
+ * loads with its canonical chunk's inventories.
+ */
+public final class AliasReference {
+
+    private static final String CANONICAL_X = "worldsize:alias_of_x";
+    private static final String CANONICAL_Z = "worldsize:alias_of_z";
+
+    /** Where block entities that hold items keep them (containers, campfires, lecterns, jukeboxes, pots). */
+    private static final List<String> ITEM_KEYS = List.of("Items", "item", "Book", "RecordItem");
+
+    private AliasReference() {
+    }
+
+    /**
+     * Whether a FULL alias may be stored as a reference to its canonical
+     * chunk: the canonical chunk is loaded, FULL and saved, both hold the
+     * same blocks and block entity positions, neither holds a block entity
+     * with items ({@link Clearable}), and the alias owns no structure starts
+     * (those cannot be moved along with the blocks).
+     */
+    public static boolean canReference(LevelChunk alias, LevelChunk canonical) {
+        if (canonical.isUnsaved() || !alias.getAllStarts().isEmpty()
+                || alias.getBlockEntitiesPos().size() != canonical.getBlockEntitiesPos().size()
+                || holdsItems(alias) || holdsItems(canonical)) {
+            return false;
+        }
+        LevelChunkSection[] aliasSections = alias.getSections();
+        LevelChunkSection[] canonicalSections = canonical.getSections();
+        for (int i = 0; i < aliasSections.length; i++) {
+            LevelChunkSection a = aliasSections[i];
+            LevelChunkSection c = canonicalSections[i];
+            if (a.hasOnlyAir() != c.hasOnlyAir()) {
+                return false;
+            }
+            if (a.hasOnlyAir()) {
+                continue;
+            }
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (a.getBlockState(x, y, z) != c.getBlockState(x, y, z)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean holdsItems(LevelChunk chunk) {
+        for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+            if (blockEntity instanceof Clearable) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static CompoundTag stub(ChunkPos alias, ChunkPos canonical) {
+        CompoundTag tag = NbtUtils.addCurrentDataVersion(new CompoundTag());
+        tag.putInt("xPos", alias.x);
+        tag.putInt("zPos", alias.z);
+        tag.putString("Status", "minecraft:full");
+        tag.putInt(CANONICAL_X, canonical.x);
+        tag.putInt(CANONICAL_Z, canonical.z);
+        return tag;
+    }
+
+    /** @return the canonical chunk a stored tag refers to, or null if it is a full chunk */
+    public static ChunkPos canonicalOf(CompoundTag tag) {
+        if (!tag.contains(CANONICAL_X) || !tag.contains(CANONICAL_Z)) {
+            return null;
+        }
+        return new ChunkPos(tag.getIntOr(CANONICAL_X, 0), tag.getIntOr(CANONICAL_Z, 0));
+    }
+
+    /**
+     * The canonical chunk's saved data, moved to the alias position: chunk
+     * coordinates, block entity and scheduled tick positions, and structure
+     * references (starts are dropped — the alias had none). Everything else
+     * in a chunk tag is relative to the chunk. Items held by block entities
+     * stay with the canonical chunk.
+     */
+    public static CompoundTag relocate(CompoundTag canonicalTag, ChunkPos canonical, ChunkPos alias) {
+        CompoundTag tag = canonicalTag.copy();
+        int dx = alias.x - canonical.x;
+        int dz = alias.z - canonical.z;
+        tag.putInt("xPos", alias.x);
+        tag.putInt("zPos", alias.z);
+
+        ListTag blockEntities = tag.getListOrEmpty("block_entities");
+        moveEntries(blockEntities, dx * 16, dz * 16);
+        for (Tag entry : blockEntities) {
+            if (entry instanceof CompoundTag compound) {
+                ITEM_KEYS.forEach(compound::remove);
+            }
+        }
+        moveEntries(tag.getListOrEmpty("block_ticks"), dx * 16, dz * 16);
+        moveEntries(tag.getListOrEmpty("fluid_ticks"), dx * 16, dz * 16);
+
+        CompoundTag structures = tag.getCompoundOrEmpty("structures");
+        CompoundTag references = structures.getCompoundOrEmpty("References");
+        CompoundTag moved = new CompoundTag();
+        for (String key : references.keySet()) {
+            long[] starts = references.getLongArray(key).orElse(new long[0]);
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = ChunkPos.asLong(ChunkPos.getX(starts[i]) + dx, ChunkPos.getZ(starts[i]) + dz);
+            }
+            moved.putLongArray(key, starts);
+        }
+        structures.put("starts", new CompoundTag());
+        structures.put("References", moved);
+        tag.put("structures", structures);
+        return tag;
+    }
+
+    private static void moveEntries(ListTag entries, int dx, int dz) {
+        for (Tag entry : entries) {
+            if (entry instanceof CompoundTag compound) {
+                compound.putInt("x", compound.getIntOr("x", 0) + dx);
+                compound.putInt("z", compound.getIntOr("z", 0) + dz);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package base.worldsize;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.NoiseColumn;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.RandomState;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches getBaseHeight() and getBaseColumn() results for the wrapped domain.
+ *
+ * Structure placement, spawn search and villages probe the same columns over
+ * and over, and every probe re-evaluates the noise router for a whole column.
+ * On a torus there are only sizeBlocksX × sizeBlocksZ distinct columns, so:
+ *
+ * - Base heights are stored per Heightmap.Types in packed short[] tiles, one
+ *   tile (16×16 columns) per wrapped chunk column, allocated on first write.
+ *   The tile table of a heightmap type is itself only allocated once that
+ *   type is first stored — large tori rarely probe more than two types.
+ *   Short.MIN_VALUE marks "not computed yet".
+ * - Full NoiseColumns go into a small synchronized LRU, since they are far
+ *   bigger and far less commonly requested than plain heights.
+ *
+ * Results depend on the RandomState and the height bounds of the accessor,
+ * so the cache binds to the first pair it sees. Calls with a different
+ * RandomState or different bounds are answered uncached.
+ */
+public final class BaseColumnCache {
+
+    private static final short MISSING = Short.MIN_VALUE;
+
+    private record Binding(RandomState randomState, int minY, int height) {
+    }
+
+    private final TorusContext torus;
+    private final AtomicReference<Binding> binding = new AtomicReference<>();
+    private final AtomicReferenceArray<AtomicReferenceArray<short[]>> heightTiles =
+            new AtomicReferenceArray<>(Heightmap.Types.values().length);
+    private final Map<Long, BlockState[]> columns;
+
+    public BaseColumnCache(TorusContext torus, int maxColumns) {
+        this.torus = torus;
+        this.columns = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BlockState[]> eldest) {
+                return size() > maxColumns;
+            }
+        };
+    }
+
+    /**
+     * Whether results for this accessor and RandomState may be cached.
+     * The first caller binds the cache.
+     */
+    public boolean accepts(LevelHeightAccessor level, RandomState randomState) {
+        Binding current = this.binding.get();
+        if (current == null) {
+            Binding created = new Binding(randomState, level.getMinY(), level.getHeight());
+            current = this.binding.compareAndSet(null, created) ? created : this.binding.get();
+        }
+        return current.randomState == randomState
+                && current.minY == level.getMinY()
+                && current.height == level.getHeight();
+    }
+
+    /** Forget every height and column; the binding is kept. */
+    public void clear() {
+        for (int i = 0; i < this.heightTiles.length(); i++) {
+            this.heightTiles.set(i, null);
+        }
+        synchronized (this.columns) {
+            this.columns.clear();
+        }
+    }
+
+    // =========================================================================
+    // Base heights
+    // =========================================================================
+
+    /**
+     * @param x WRAPPED block X
+     * @param z WRAPPED block Z
+     * @return the cached height, or {@link Integer#MIN_VALUE} if not computed yet
+     */
+    public int getHeight(Heightmap.Types type, int x, int z) {
+        AtomicReferenceArray<short[]> tiles = this.heightTiles.get(type.ordinal());
+        short[] tile = tiles == null ? null : tiles.get(tileIndex(x, z));
+        if (tile == null) {
+            return Integer.MIN_VALUE;
+        }
+        short height = tile[((z & 15) << 4) | (x & 15)];
+        return height == MISSING ? Integer.MIN_VALUE : height;
+    }
+
+    public void putHeight(Heightmap.Types type, int x, int z, int height) {
+        AtomicReferenceArray<short[]> tiles = this.heightTiles.get(type.ordinal());
+        if (tiles == null) {
+            AtomicReferenceArray<short[]> created = new AtomicReferenceArray<>(this.torus.chunkCount());
+            tiles = this.heightTiles.compareAndSet(type.ordinal(), null, created) ? created : this.heightTiles.get(type.ordinal());
+        }
+        int tileIndex = tileIndex(x, z);
+        short[] tile = tiles.get(tileIndex);
+        if (tile == null) {
+            short[] created = new short[256];
+            Arrays.fill(created, MISSING);
+            tile = tiles.compareAndSet(tileIndex, null, created) ? created : tiles.get(tileIndex);
+        }
+        tile[((z & 15) << 4) | (x & 15)] = (short) height;
+    }
+
+    private int tileIndex(int x, int z) {
+        return this.torus.chunkIndex(x >> 4, z >> 4);
+    }
+
+    // =========================================================================
+    // Noise columns
+    // =========================================================================
+
+    /**
+     * @param x WRAPPED block X
+     * @param z WRAPPED block Z
+     * @return a fresh NoiseColumn backed by a copy of the cached states, or null
+     */
+    public NoiseColumn getColumn(int x, int z, LevelHeightAccessor level) {
+        BlockState[] states;
+        synchronized (this.columns) {
+            states = this.columns.get(BlockPos.asLong(x, 0, z));
+        }
+        return states == null ? null : new NoiseColumn(level.getMinY(), states.clone());
+    }
+
+    /**
+     * Store a column, flattened to the full height of the accessor so that
+     * copies read back exactly like the original (air outside its range).
+     */
+    public void putColumn(int x, int z, LevelHeightAccessor level, NoiseColumn column) {
+        int minY = level.getMinY();
+        BlockState[] states = new BlockState[level.getHeight()];
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(x, minY, z);
+        for (int i = 0; i < states.length; i++) {
+            states[i] = column.getBlock(pos.setY(minY + i));
+        }
+        synchronized (this.columns) {
+            this.columns.put(BlockPos.asLong(x, 0, z), states);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package base.worldsize;
+
+import com.google.common.base.Suppliers;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.NoiseSettings;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Lazily filled biome lookup table covering the whole wrapped quart domain.
+ *
+ * The torus only has (sizeBlocksX / 4) × (sizeBlocksZ / 4) quart columns, so every biome
+ * the biome source can ever return is cached here after its first evaluation.
+ * Later queries for the same wrapped quart — from createBiomes, structure
+ * checks or the F3 screen — are a single array read instead of a climate
+ * sample plus parameter-tree search.
+ *
+ * LAYOUT:
+ * - One byte[] tile per 4×4 quart column (one chunk column), allocated on
+ *   first write and published with compareAndSet.
+ * - Each byte is (palette index + 1); 0 means "not computed yet".
+ * - The palette is the biome source's possibleBiomes(). Sources with more
+ *   than 255 possible biomes are not cached.
+ *
+ * Concurrent writers for the same quart always write the same value, so
+ * plain byte stores are enough — a racing reader at worst sees 0 and
+ * recomputes the biome.
+ */
+public final class BiomeAtlas {
+
+    private final TorusContext torus;
+    private final BiomeSource source;
+    private final Holder<NoiseGeneratorSettings> settings;
+    private final Supplier<Layout> layout;
+    private final AtomicReferenceArray<byte[]> tiles;
+
+    /**
+     * Palette and vertical bounds, resolved on first use — settings holders
+     * are not guaranteed to be bound while the generator codec is decoding.
+     */
+    private record Layout(Holder<Biome>[] palette, Reference2IntMap<Holder<Biome>> indices,
+                          int minQuartY, int heightQuarts, boolean cacheable) {
+    }
+
+    public BiomeAtlas(TorusContext torus, BiomeSource source, Holder<NoiseGeneratorSettings> settings) {
+        this.torus = torus;
+        this.tiles = new AtomicReferenceArray<>(torus.chunkCount());
+        this.source = source;
+        this.settings = settings;
+        this.layout = Suppliers.memoize(this::createLayout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Layout createLayout() {
+        Holder<Biome>[] palette = this.source.possibleBiomes().toArray(new Holder[0]);
+        Reference2IntMap<Holder<Biome>> indices = new Reference2IntOpenHashMap<>(palette.length);
+        indices.defaultReturnValue(-1);
+        for (int i = 0; i < palette.length; i++) {
+            indices.put(palette[i], i);
+        }
+
+        NoiseSettings noise = this.settings.value().noiseSettings();
+        boolean cacheable = palette.length < 256;
+        if (!cacheable) {
+            WorldSize.LOGGER.warn("[WorldSize] Biome source has {} possible biomes — biome atlas disabled", palette.length);
+        }
+        return new Layout(palette, indices, noise.minY() >> 2, noise.height() >> 2, cacheable);
+    }
+
+    /**
+     * Look up an already-computed biome.
+     *
+     * @param quartX WRAPPED quart X in [0, sizeBlocksX / 4)
+     * @param quartZ WRAPPED quart Z in [0, sizeBlocksZ / 4)
+     * @return the cached biome, or null if it has not been computed yet
+     */
+    public Holder<Biome> get(int quartX, int quartY, int quartZ) {
+        byte[] tile = this.tiles.get(tileIndex(quartX, quartZ));
+        if (tile == null) {
+            return null;
+        }
+        Layout layout = this.layout.get();
+        int y = quartY - layout.minQuartY;
+        if (y < 0 || y >= layout.heightQuarts) {
+            return null;
+        }
+        int entry = tile[cellIndex(quartX, y, quartZ)] & 0xFF;
+        return entry == 0 ? null : layout.palette[entry - 1];
+    }
+
+    /**
+     * Record a computed biome for a wrapped quart position.
+     */
+    public void put(int quartX, int quartY, int quartZ, Holder<Biome> biome) {
+        Layout layout = this.layout.get();
+        int y = quartY - layout.minQuartY;
+        if (!layout.cacheable || y < 0 || y >= layout.heightQuarts) {
+            return;
+        }
+        int index = layout.indices.getInt(biome);
+        if (index < 0) {
+            return;
+        }
+
+        int tileIndex = tileIndex(quartX, quartZ);
+        byte[] tile = this.tiles.get(tileIndex);
+        if (tile == null) {
+            byte[] created = new byte[16 * layout.heightQuarts];
+            tile = this.tiles.compareAndSet(tileIndex, null, created) ? created : this.tiles.get(tileIndex);
+        }
+        tile[cellIndex(quartX, y, quartZ)] = (byte) (index + 1);
+    }
+
+    private int tileIndex(int quartX, int quartZ) {
+        return this.torus.chunkIndex(quartX >> 2, quartZ >> 2);
+    }
+
+    private static int cellIndex(int quartX, int y, int quartZ) {
+        return (y << 4) | ((quartZ & 3) << 2) | (quartX & 3);
+    }
+}
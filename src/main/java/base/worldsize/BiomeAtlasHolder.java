@@ -0,0 +1,10 @@
+package base.worldsize;
+
+/**
+ * Implemented (via mixin) by biome sources that can serve lookups from a
+ * {@link BiomeAtlas}. The torus generator installs one at construction.
+ */
+public interface BiomeAtlasHolder {
+
+    void worldsize$setBiomeAtlas(BiomeAtlas atlas);
+}
@@ -0,0 +1,68 @@
+package base.worldsize;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded, concurrent cache of per-wrap-class chunk data — noise and carver
+ * {@link ChunkTemplate}s, {@link DecorationRecord}s.
+ *
+ * On a torus, chunk (x, z) and chunk (x + sizeChunksX, z) produce the
+ * same noise terrain. The first chunk of each wrap class to be filled stores
+ * a {@link ChunkTemplate} here, keyed by the WRAPPED ChunkPos
+ * ({@link TorusContext#canonicalKey}); every later
+ * alias is filled by copying that template instead of re-running the
+ * density functions.
+ *
+ * Eviction is FIFO by insertion order. Each canonical chunk is inserted once
+ * and then read on every lap, so recency tracking would not buy anything
+ * over plain insertion order here.
+ */
+public final class CanonicalChunkCache<T> {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<Long, T> templates = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public CanonicalChunkCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isEnabled() {
+        return this.maxEntries > 0;
+    }
+
+    public T get(long key) {
+        return this.templates.get(key);
+    }
+
+    /**
+     * Store a template unless one already exists for this wrap class.
+     * Two workers racing on the same canonical chunk produce identical
+     * templates, so the loser is simply dropped.
+     */
+    public void put(long key, T template) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (this.templates.putIfAbsent(key, template) == null) {
+            this.insertionOrder.add(key);
+            while (this.templates.size() > this.maxEntries) {
+                Long eldest = this.insertionOrder.poll();
+                if (eldest == null) {
+                    break;
+                }
+                this.templates.remove(eldest);
+            }
+        }
+    }
+
+    public int size() {
+        return this.templates.size();
+    }
+
+    public void clear() {
+        this.templates.clear();
+        this.insertionOrder.clear();
+    }
+}
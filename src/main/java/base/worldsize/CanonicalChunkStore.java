@@ -0,0 +1,367 @@
+package base.worldsize;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.StreamTagVisitor;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Single-file, memory-mapped storage for the canonical chunks of a torus.
+ *
+ * The canonical world is a fixed sizeChunksX × sizeChunksZ rectangle, so
+ * instead of vanilla's region lookup + header parse + decompress, every
+ * canonical chunk gets a fixed slot in one file, addressed directly by its
+ * (wrapped) position:
+ *
+ *   [header: magic, version, size, slotBytes]
+ *   [slot 0][slot 1] ... [slot chunkCount - 1]     slot = z * sizeChunksX + x
+ *
+ * The size field holds sizeChunks for square tori (the original layout) and
+ * (sizeChunksZ << 16) | sizeChunksX for rectangular ones.
+ *
+ * Each slot holds two copies of slotBytes, written alternately:
+ *
+ *   [int length][int checksum][long generation][uncompressed chunk NBT]
+ *
+ * A write goes to the copy that is not the newest valid one, with the next
+ * generation, so the previous version survives until the new one is complete.
+ * Mapped writes reach the disk in no particular order on power loss or an OS
+ * crash; the CRC32C over length, generation and body catches a torn copy,
+ * which is rejected (and logged) in favour of the other copy. Length 0 with a
+ * valid checksum is a tombstone: the chunk lives in its region file.
+ *
+ * The file is sparse on disk until slots are written. A single mapping is
+ * limited to 2 GiB, so large tori are mapped as several segments.
+ *
+ * Only canonical chunk NBT lives here — aliases, POI and entity data stay in
+ * region files. A chunk too large for its slot also falls back to its region
+ * file (and a tombstone is written so the slot can't shadow the newer region
+ * copy). With two copies per slot the file spans twice chunkCount × slotBytes,
+ * though only written slots take up disk.
+ *
+ * Opt-in via -Dworldsize.canonicalStore=true. NOTE: while enabled, the store
+ * takes precedence over region files for canonical chunks; turning it off
+ * again means those chunks are read from their (older) region copies.
+ */
+public final class CanonicalChunkStore {
+
+    public static final String FILE_NAME = "torus_canonical.bin";
+
+    private static final int MAGIC = 0x544F5255; // "TORU"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int COPY_HEADER_BYTES = 16;
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    /** Dimensions whose chunk storage should use a canonical store, with their torus size. */
+    private static final Map<ResourceKey<Level>, TorusContext> ENABLED_DIMENSIONS = new ConcurrentHashMap<>();
+
+    /** Open stores, for admin commands. */
+    private static final Map<ResourceKey<Level>, CanonicalChunkStore> OPEN = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final TorusContext torus;
+    private final int slotBytes;
+    private final int slotsPerSegment;
+
+    /** One copy of a slot, as found on disk. */
+    private record SlotCopy(int offset, int length, long generation, boolean valid) {
+        boolean isTombstone() {
+            return this.length == 0;
+        }
+    }
+
+    private CanonicalChunkStore(Path file, TorusContext torus, int slotBytes) throws IOException {
+        this.file = file;
+        this.torus = torus;
+        this.slotBytes = slotBytes;
+        this.slotsPerSegment = SEGMENT_BYTES / (2 * slotBytes);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+        int size = torus.sizeChunksX() == torus.sizeChunksZ()
+                ? torus.sizeChunksX()
+                : (torus.sizeChunksZ() << 16) | torus.sizeChunksX();
+        int magic = this.header.getInt(0);
+        if (magic == 0) {
+            this.header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, size).putInt(12, slotBytes);
+        } else if (magic != MAGIC || this.header.getInt(4) != VERSION
+                || this.header.getInt(8) != size || this.header.getInt(12) != slotBytes) {
+            this.channel.close();
+            throw new IOException("Incompatible canonical chunk store layout in " + file);
+        }
+
+        int slots = torus.chunkCount();
+        this.segments = new MappedByteBuffer[(slots + this.slotsPerSegment - 1) / this.slotsPerSegment];
+        for (int i = 0; i < this.segments.length; i++) {
+            int segmentSlots = Math.min(this.slotsPerSegment, slots - i * this.slotsPerSegment);
+            long start = HEADER_BYTES + (long) i * this.slotsPerSegment * 2 * slotBytes;
+            this.segments[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, start, (long) segmentSlots * 2 * slotBytes);
+        }
+    }
+
+    // =========================================================================
+    // Registration
+    // =========================================================================
+
+    public static void enableFor(ResourceKey<Level> dimension, TorusContext torus) {
+        ENABLED_DIMENSIONS.put(dimension, torus);
+    }
+
+    public static void reset() {
+        ENABLED_DIMENSIONS.clear();
+        OPEN.clear();
+    }
+
+    public static CanonicalChunkStore get(ResourceKey<Level> dimension) {
+        return OPEN.get(dimension);
+    }
+
+    /**
+     * Open the store for a region folder, if that folder holds chunk data of a
+     * torus dimension with the store enabled.
+     *
+     * @return the store, or null if this storage should stay region-only
+     */
+    public static CanonicalChunkStore open(ResourceKey<Level> dimension, String storageType, Path regionFolder) {
+        TorusContext torus = ENABLED_DIMENSIONS.get(dimension);
+        if (!"chunk".equals(storageType) || torus == null) {
+            return null;
+        }
+        try {
+            Files.createDirectories(regionFolder);
+            Path file = regionFolder.resolve(FILE_NAME);
+            int slotBytes = WorldSizeConfig.CANONICAL_STORE_SLOT_KB * 1024;
+            CanonicalChunkStore store = new CanonicalChunkStore(file, torus, slotBytes);
+            OPEN.put(dimension, store);
+            WorldSize.LOGGER.info("[WorldSize] Canonical chunk store opened for {} at {}", dimension.identifier(), store.file);
+            return store;
+        } catch (IOException e) {
+            WorldSize.LOGGER.error("[WorldSize] Could not open canonical chunk store in {} — using region files", regionFolder, e);
+            return null;
+        }
+    }
+
+    // =========================================================================
+    // Slot access
+    // =========================================================================
+
+    public boolean handles(ChunkPos pos) {
+        return !this.torus.isAlias(pos);
+    }
+
+    private MappedByteBuffer segment(int slot) {
+        return this.segments[slot / this.slotsPerSegment];
+    }
+
+    private int segmentOffset(int slot) {
+        return (slot % this.slotsPerSegment) * 2 * this.slotBytes;
+    }
+
+    private SlotCopy readCopy(MappedByteBuffer segment, int offset) {
+        int length = segment.getInt(offset);
+        int checksum = segment.getInt(offset + 4);
+        long generation = segment.getLong(offset + 8);
+        if (length == 0 && checksum == 0 && generation == 0) {
+            return new SlotCopy(offset, 0, 0, false); // never written
+        }
+        boolean valid = length >= 0 && length <= this.slotBytes - COPY_HEADER_BYTES
+                && checksum(segment, offset, length, generation) == checksum;
+        return new SlotCopy(offset, length, generation, valid);
+    }
+
+    private static int checksum(ByteBuffer segment, int offset, int length, long generation) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(12).putInt(length).putLong(generation).flip());
+        crc.update(segment.slice(offset + COPY_HEADER_BYTES, length));
+        return (int) crc.getValue();
+    }
+
+    /** The newer valid copy of a slot, or null if neither is valid. Logs rejected copies. */
+    private SlotCopy newestCopy(ChunkPos pos, MappedByteBuffer segment, int offset) {
+        SlotCopy first = readCopy(segment, offset);
+        SlotCopy second = readCopy(segment, offset + this.slotBytes);
+        SlotCopy newest = null;
+        for (SlotCopy copy : new SlotCopy[]{first, second}) {
+            if (copy.valid && (newest == null || copy.generation > newest.generation)) {
+                newest = copy;
+            }
+        }
+        for (SlotCopy copy : new SlotCopy[]{first, second}) {
+            if (!copy.valid && copy.generation != 0 && (newest == null || copy.generation > newest.generation)) {
+                WorldSize.LOGGER.warn("[WorldSize] Canonical store slot of chunk {} (generation {}) failed its checksum; {}",
+                        pos, copy.generation, newest != null ? "using the previous copy (generation " + newest.generation + ")"
+                                : "falling back to the region file");
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * @return the stored chunk NBT, or null if the slot is empty or the chunk
+     *         lives in its region file
+     */
+    public synchronized CompoundTag read(ChunkPos pos) throws IOException {
+        int index = this.torus.chunkIndex(pos.x, pos.z);
+        MappedByteBuffer segment = segment(index);
+        SlotCopy copy = newestCopy(pos, segment, segmentOffset(index));
+        if (copy == null || copy.isTombstone()) {
+            return null;
+        }
+        ByteBuffer body = segment.slice(copy.offset + COPY_HEADER_BYTES, copy.length);
+        return NbtIo.read(new DataInputStream(new BufferInputStream(body)));
+    }
+
+    /**
+     * Feed the stored chunk NBT to a visitor without building the whole tag
+     * (structure checks only look at a few fields).
+     *
+     * @return false if the slot is empty or the chunk lives in its region file
+     */
+    public synchronized boolean scan(ChunkPos pos, StreamTagVisitor visitor) throws IOException {
+        int index = this.torus.chunkIndex(pos.x, pos.z);
+        MappedByteBuffer segment = segment(index);
+        SlotCopy copy = newestCopy(pos, segment, segmentOffset(index));
+        if (copy == null || copy.isTombstone()) {
+            return false;
+        }
+        ByteBuffer body = segment.slice(copy.offset + COPY_HEADER_BYTES, copy.length);
+        NbtIo.parse(new DataInputStream(new BufferInputStream(body)), visitor, NbtAccounter.unlimitedHeap());
+        return true;
+    }
+
+    /**
+     * Store (or, for a null tag, clear) a canonical chunk.
+     *
+     * @return true if the chunk now lives in the store, false if the caller
+     *         must write it to the region file instead
+     */
+    public synchronized boolean write(ChunkPos pos, CompoundTag tag) throws IOException {
+        byte[] body = null;
+        if (tag != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(this.slotBytes);
+            NbtIo.write(tag, new DataOutputStream(bytes));
+            if (bytes.size() + COPY_HEADER_BYTES <= this.slotBytes) {
+                body = bytes.toByteArray();
+            } else {
+                WorldSize.LOGGER.debug("[WorldSize] Chunk {} ({} bytes) exceeds canonical store slot — using region file", pos, bytes.size());
+            }
+        }
+        // A tombstone keeps an older copy from shadowing the newer region file copy
+        writeCopy(pos, body != null ? body : new byte[0]);
+        return body != null;
+    }
+
+    private void writeCopy(ChunkPos pos, byte[] body) {
+        int index = this.torus.chunkIndex(pos.x, pos.z);
+        MappedByteBuffer segment = segment(index);
+        int offset = segmentOffset(index);
+        SlotCopy first = readCopy(segment, offset);
+        SlotCopy second = readCopy(segment, offset + this.slotBytes);
+        long generation = Math.max(first.generation, second.generation) + 1;
+        // Overwrite the copy that is not the newest valid one
+        SlotCopy keep = first.valid && (!second.valid || first.generation > second.generation) ? first : second;
+        int target = keep == first ? second.offset : first.offset;
+
+        segment.put(target + COPY_HEADER_BYTES, body);
+        segment.putInt(target, body.length);
+        segment.putLong(target + 8, generation);
+        segment.putInt(target + 4, checksum(segment, target, body.length, generation));
+    }
+
+    public synchronized void flush() {
+        this.header.force();
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        flush();
+        this.channel.close();
+        OPEN.values().remove(this);
+    }
+
+    /**
+     * Copy the store to a backup file. The mapping is forced to disk first;
+     * only the header and occupied slots are transferred (kernel-side), each
+     * to its own offset, so the backup stays as sparse as the store and costs
+     * about as much disk as the chunks in it.
+     */
+    public synchronized Path snapshot() throws IOException {
+        flush();
+        Path target = this.file.resolveSibling(FILE_NAME + "." + System.currentTimeMillis() + ".bak");
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            transfer(out, 0, HEADER_BYTES);
+            for (int index = 0; index < this.torus.chunkCount(); index++) {
+                MappedByteBuffer segment = segment(index);
+                int offset = segmentOffset(index);
+                if (segment.getLong(offset + 8) == 0 && segment.getLong(offset + this.slotBytes + 8) == 0) {
+                    continue;
+                }
+                long position = HEADER_BYTES + (long) (index / this.slotsPerSegment) * this.slotsPerSegment * 2 * this.slotBytes + offset;
+                transfer(out, position, 2L * this.slotBytes);
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private void transfer(FileChannel out, long position, long count) throws IOException {
+        out.position(position);
+        long done = 0;
+        while (done < count) {
+            done += this.channel.transferTo(position + done, count - done, out);
+        }
+    }
+
+    /**
+     * Minimal InputStream over a ByteBuffer slice, so NBT is parsed straight
+     * out of the mapping without an intermediate byte[].
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
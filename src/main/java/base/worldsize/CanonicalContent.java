@@ -0,0 +1,23 @@
+package base.worldsize;
+
+/**
+ * Implemented (via mixin) by ChunkAccess to track, while a chunk generates,
+ * whether its blocks are still exactly what every chunk of its wrap class
+ * gets — and so whether the canonical chunk's light fits it.
+ *
+ * Set by fillFromNoise() for template-eligible chunks; cleared by any later
+ * stage that computed position-specific output instead of copying the
+ * canonical result (an alias surfaced or carved without a template, or a
+ * region decorated without replaying a record). See TorusChunkGenerator.
+ */
+public interface CanonicalContent {
+
+    boolean worldsize$matchesCanonical();
+
+    void worldsize$setMatchesCanonical(boolean matches);
+
+    /** Whether the chunk's light was queued from its canonical chunk instead of being propagated. */
+    boolean worldsize$hasCanonicalLight();
+
+    void worldsize$setCanonicalLight(boolean canonicalLight);
+}
@@ -0,0 +1,43 @@
+package base.worldsize;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one TorusChunkGenerator stage of one chunk.
+ *
+ * Enable in a recording with:
+ *   jcmd <pid> JFR.start settings=profile +worldsize.ChunkStage#enabled=true
+ * (or a .jfc with worldsize.ChunkStage enabled). The event is committed when
+ * the stage finishes; {@link #stageTime} carries the measured span, which for
+ * the async stages (createBiomes, fillFromNoise) runs from the call to the
+ * completion of their future.
+ */
+@Name("worldsize.ChunkStage")
+@Label("Torus Chunk Stage")
+@Category({"WorldSize", "World Generation"})
+@Description("Duration of one chunk generator stage on a torus dimension")
+@StackTrace(false)
+public final class ChunkStageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Alias")
+    @Description("True if the chunk lies outside the canonical rectangle")
+    public boolean alias;
+
+    @Label("Stage Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long stageTime;
+}
@@ -0,0 +1,99 @@
+package base.worldsize;
+
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import it.unimi.dsi.fastutil.shorts.ShortList;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a chunk's terrain right after fillFromNoise(),
+ * buildSurface() or applyCarvers().
+ *
+ * Everything stored here is chunk-LOCAL (section-relative block states,
+ * column-indexed heightmaps, section-packed post-processing offsets), so a
+ * template captured from one chunk can be applied to any other chunk at a
+ * different world position without translation.
+ *
+ * Biomes are NOT part of the template — createBiomes() runs before
+ * fillFromNoise() and the target chunk already has its own (identical) biomes.
+ * Neither is the carving mask: no vanilla placement reads it any more.
+ */
+public final class ChunkTemplate {
+
+    private final PalettedContainer<BlockState>[] states;
+    private final Map<Heightmap.Types, long[]> heightmaps;
+    private final ShortList[] postProcessing;
+
+    private ChunkTemplate(PalettedContainer<BlockState>[] states,
+                          Map<Heightmap.Types, long[]> heightmaps,
+                          ShortList[] postProcessing) {
+        this.states = states;
+        this.heightmaps = heightmaps;
+        this.postProcessing = postProcessing;
+    }
+
+    /**
+     * Copy the current terrain of a chunk. The chunk is not modified and the
+     * returned template shares no mutable state with it.
+     */
+    @SuppressWarnings("unchecked")
+    public static ChunkTemplate capture(ChunkAccess chunk) {
+        LevelChunkSection[] sections = chunk.getSections();
+        PalettedContainer<BlockState>[] states = new PalettedContainer[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            states[i] = sections[i].getStates().copy();
+        }
+
+        Map<Heightmap.Types, long[]> heightmaps = new EnumMap<>(Heightmap.Types.class);
+        for (Map.Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+            heightmaps.put(entry.getKey(), entry.getValue().getRawData().clone());
+        }
+
+        ShortList[] source = chunk.getPostProcessing();
+        ShortList[] postProcessing = new ShortList[source.length];
+        for (int i = 0; i < source.length; i++) {
+            if (source[i] != null && !source[i].isEmpty()) {
+                postProcessing[i] = new ShortArrayList(source[i]);
+            }
+        }
+
+        return new ChunkTemplate(states, heightmaps, postProcessing);
+    }
+
+    /**
+     * Overwrite a chunk's terrain with this template.
+     *
+     * Sections are REPLACED (not written block by block) with fresh copies of
+     * the template's block state containers; each section keeps the biome
+     * container the target chunk already has. Post-processing marks are
+     * replaced too, so a later stage's template may be applied over an
+     * earlier one.
+     */
+    public void applyTo(ChunkAccess chunk) {
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int i = 0; i < sections.length && i < this.states.length; i++) {
+            sections[i] = new LevelChunkSection(this.states[i].copy(), sections[i].getBiomes());
+        }
+
+        for (Map.Entry<Heightmap.Types, long[]> entry : this.heightmaps.entrySet()) {
+            chunk.getOrCreateHeightmapUnprimed(entry.getKey())
+                    .setRawData(chunk, entry.getKey(), entry.getValue().clone());
+        }
+
+        ShortList[] target = chunk.getPostProcessing();
+        for (int i = 0; i < this.postProcessing.length && i < target.length; i++) {
+            if (target[i] != null) {
+                target[i].clear();
+            }
+            if (this.postProcessing[i] != null) {
+                ChunkAccess.getOrCreateOffsetList(target, i).addAll(this.postProcessing[i]);
+            }
+        }
+    }
+}
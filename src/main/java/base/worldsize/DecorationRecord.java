@@ -0,0 +1,381 @@
+package base.worldsize;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import it.unimi.dsi.fastutil.shorts.ShortList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.ticks.LevelTickAccess;
+import net.minecraft.world.ticks.ScheduledTick;
+import net.minecraft.world.ticks.TickPriority;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything applyBiomeDecoration() did to the world for one canonical chunk,
+ * relative to that chunk's origin, so an alias can get the same result by
+ * replaying it instead of running every feature again.
+ *
+ * Decoration writes into the whole 3×3 generation region, not just its own
+ * chunk, and not only through setBlock: ores and other features using
+ * BulkSectionAccess write straight into the chunk sections. So the recorder
+ * copies the block states and post-processing marks of all 3×3 chunks before
+ * decoration and diffs them afterwards. The record holds:
+ * - the final state of every block that changed;
+ * - every post-processing mark that was added;
+ * - the final block entity NBT at each changed position that holds one;
+ * - every scheduled block and fluid tick, with its delay instead of its
+ *   absolute trigger time.
+ * Heightmaps follow from writing the changed blocks into the chunks.
+ *
+ * The diff reads every block of 9 × sectionCount sections twice, a fraction
+ * of what running the features costs, and only for canonical chunks.
+ *
+ * A record is discarded (never cached) if decoration added an entity —
+ * entities are saved apart from the chunk and cannot be replayed safely.
+ *
+ * Structure pieces are part of decoration, so a record only replays onto an
+ * alias whose structure references wrap onto the same starts as the
+ * canonical chunk's did ({@link #matches}).
+ */
+public final class DecorationRecord {
+
+    private record RecordedTick<T>(T type, long pos, long delay, TickPriority priority) {
+    }
+
+    private final long[] positions;
+    private final BlockState[] states;
+    private final long[] postProcessing;
+    private final Long2ObjectOpenHashMap<CompoundTag> blockEntities;
+    private final List<RecordedTick<Block>> blockTicks;
+    private final List<RecordedTick<Fluid>> fluidTicks;
+    private final Map<Structure, LongSet> references;
+
+    private DecorationRecord(long[] positions, BlockState[] states, long[] postProcessing,
+                             Long2ObjectOpenHashMap<CompoundTag> blockEntities,
+                             List<RecordedTick<Block>> blockTicks, List<RecordedTick<Fluid>> fluidTicks,
+                             Map<Structure, LongSet> references) {
+        this.positions = positions;
+        this.states = states;
+        this.postProcessing = postProcessing;
+        this.blockEntities = blockEntities;
+        this.blockTicks = blockTicks;
+        this.fluidTicks = fluidTicks;
+        this.references = references;
+    }
+
+    /**
+     * The structure references of a chunk with every start position wrapped,
+     * i.e. which canonical starts the chunk's decoration would place pieces of.
+     */
+    public static Map<Structure, LongSet> wrappedReferences(TorusContext torus, ChunkAccess chunk) {
+        Map<Structure, LongSet> wrapped = new HashMap<>();
+        for (Map.Entry<Structure, LongSet> entry : chunk.getAllReferences().entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            LongSet starts = new LongOpenHashSet(entry.getValue().size());
+            for (long start : entry.getValue()) {
+                starts.add(ChunkPos.asLong(torus.wrapChunkX(ChunkPos.getX(start)), torus.wrapChunkZ(ChunkPos.getZ(start))));
+            }
+            wrapped.put(entry.getKey(), starts);
+        }
+        return wrapped;
+    }
+
+    public Map<Structure, LongSet> references() {
+        return this.references;
+    }
+
+    /** Whether an alias with these (wrapped) references may replay this record. */
+    public boolean matches(Map<Structure, LongSet> wrappedReferences) {
+        return this.references.equals(wrappedReferences);
+    }
+
+    /**
+     * Apply the recorded decoration to the region around an alias chunk.
+     * Blocks are written into the chunks directly, as the features' final
+     * states; block entities, marks and ticks follow.
+     */
+    public void replay(WorldGenLevel level, ChunkPos target) {
+        int baseX = target.getMinBlockX();
+        int baseZ = target.getMinBlockZ();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int i = 0; i < this.positions.length; i++) {
+            offset(pos, this.positions[i], baseX, baseZ);
+            ChunkAccess chunk = level.getChunk(pos);
+            BlockState previous = chunk.setBlockState(pos, this.states[i], Block.UPDATE_NONE);
+            if (previous != null && previous.hasBlockEntity()) {
+                chunk.removeBlockEntity(pos);
+            }
+        }
+
+        for (long relative : this.postProcessing) {
+            offset(pos, relative, baseX, baseZ);
+            level.getChunk(pos).markPosForPostprocessing(pos);
+        }
+
+        for (Long2ObjectOpenHashMap.Entry<CompoundTag> entry : this.blockEntities.long2ObjectEntrySet()) {
+            BlockPos at = offset(pos, entry.getLongKey(), baseX, baseZ).immutable();
+            BlockEntity blockEntity = BlockEntity.loadStatic(at, level.getBlockState(at), entry.getValue(), level.registryAccess());
+            if (blockEntity != null) {
+                level.getChunk(at).setBlockEntity(blockEntity);
+            }
+        }
+
+        long gameTime = level.getLevelData().getGameTime();
+        for (RecordedTick<Block> tick : this.blockTicks) {
+            level.getBlockTicks().schedule(new ScheduledTick<>(tick.type,
+                    offset(pos, tick.pos, baseX, baseZ).immutable(), gameTime + tick.delay, tick.priority, level.nextSubTickCount()));
+        }
+        for (RecordedTick<Fluid> tick : this.fluidTicks) {
+            level.getFluidTicks().schedule(new ScheduledTick<>(tick.type,
+                    offset(pos, tick.pos, baseX, baseZ).immutable(), gameTime + tick.delay, tick.priority, level.nextSubTickCount()));
+        }
+    }
+
+    private static BlockPos.MutableBlockPos offset(BlockPos.MutableBlockPos pos, long relative, int baseX, int baseZ) {
+        return pos.set(BlockPos.getX(relative) + baseX, BlockPos.getY(relative), BlockPos.getZ(relative) + baseZ);
+    }
+
+    public int size() {
+        return this.positions.length;
+    }
+
+    /**
+     * How many blocks and post-processing marks the two records leave
+     * differently — 0 if decorating either chunk writes the same blocks
+     * around it (both records are relative to their own chunk).
+     */
+    public int countDifferences(DecorationRecord other) {
+        Long2ObjectOpenHashMap<BlockState> blocks = new Long2ObjectOpenHashMap<>(this.positions.length);
+        for (int i = 0; i < this.positions.length; i++) {
+            blocks.put(this.positions[i], this.states[i]);
+        }
+        int differences = 0;
+        for (int i = 0; i < other.positions.length; i++) {
+            if (blocks.remove(other.positions[i]) != other.states[i]) {
+                differences++;
+            }
+        }
+        differences += blocks.size();
+
+        LongOpenHashSet marks = new LongOpenHashSet(this.postProcessing);
+        for (long mark : other.postProcessing) {
+            if (!marks.remove(mark)) {
+                differences++;
+            }
+        }
+        return differences + marks.size();
+    }
+
+    /**
+     * Collects one chunk's decoration while it runs. Owned by the generation
+     * region (see WorldGenRegionMixin), so only the worker decorating that
+     * chunk ever touches it.
+     */
+    public static final class Recorder {
+        private final ChunkPos origin;
+        private final int baseX;
+        private final int baseZ;
+        private final long gameTime;
+
+        /** The 3×3 chunks around the origin (null where the region has none) and their state before decoration. */
+        private final ChunkAccess[] chunks = new ChunkAccess[9];
+        private final PalettedContainer<BlockState>[][] sectionsBefore;
+        private final ShortList[][] postProcessingBefore = new ShortList[9][];
+
+        private final List<RecordedTick<Block>> blockTicks = new ArrayList<>();
+        private final List<RecordedTick<Fluid>> fluidTicks = new ArrayList<>();
+        private final LevelTickAccess<Block> blockTickAccess;
+        private final LevelTickAccess<Fluid> fluidTickAccess;
+        private boolean discarded;
+
+        @SuppressWarnings("unchecked")
+        public Recorder(WorldGenLevel level, ChunkPos origin, long gameTime,
+                        LevelTickAccess<Block> blockTicks, LevelTickAccess<Fluid> fluidTicks) {
+            this.origin = origin;
+            this.baseX = origin.getMinBlockX();
+            this.baseZ = origin.getMinBlockZ();
+            this.gameTime = gameTime;
+            this.blockTickAccess = new RecordingTickAccess<>(blockTicks, this.blockTicks);
+            this.fluidTickAccess = new RecordingTickAccess<>(fluidTicks, this.fluidTicks);
+
+            this.sectionsBefore = new PalettedContainer[9][];
+            for (int i = 0; i < 9; i++) {
+                int chunkX = origin.x + i % 3 - 1;
+                int chunkZ = origin.z + i / 3 - 1;
+                if (!level.hasChunk(chunkX, chunkZ)) {
+                    continue;
+                }
+                ChunkAccess chunk = level.getChunk(chunkX, chunkZ, ChunkStatus.EMPTY);
+                LevelChunkSection[] sections = chunk.getSections();
+                PalettedContainer<BlockState>[] states = new PalettedContainer[sections.length];
+                for (int s = 0; s < sections.length; s++) {
+                    states[s] = sections[s].getStates().copy();
+                }
+                ShortList[] marks = chunk.getPostProcessing();
+                ShortList[] marksCopy = new ShortList[marks.length];
+                for (int s = 0; s < marks.length; s++) {
+                    if (marks[s] != null && !marks[s].isEmpty()) {
+                        marksCopy[s] = new ShortArrayList(marks[s]);
+                    }
+                }
+                this.chunks[i] = chunk;
+                this.sectionsBefore[i] = states;
+                this.postProcessingBefore[i] = marksCopy;
+            }
+        }
+
+        /** Something was done that a replay cannot reproduce. */
+        public void discard() {
+            this.discarded = true;
+        }
+
+        public LevelTickAccess<Block> blockTicks() {
+            return this.blockTickAccess;
+        }
+
+        public LevelTickAccess<Fluid> fluidTicks() {
+            return this.fluidTickAccess;
+        }
+
+        private long relative(BlockPos pos) {
+            return relative(pos.getX(), pos.getY(), pos.getZ());
+        }
+
+        private long relative(int x, int y, int z) {
+            return BlockPos.asLong(x - this.baseX, y, z - this.baseZ);
+        }
+
+        /**
+         * Diff the region against its state before decoration.
+         *
+         * @return the finished record, or null if it was discarded
+         */
+        public DecorationRecord finish(WorldGenLevel level, Map<Structure, LongSet> wrappedReferences) {
+            if (this.discarded) {
+                return null;
+            }
+
+            LongArrayList positions = new LongArrayList();
+            List<BlockState> states = new ArrayList<>();
+            LongArrayList postProcessing = new LongArrayList();
+            for (int i = 0; i < 9; i++) {
+                ChunkAccess chunk = this.chunks[i];
+                if (chunk == null) {
+                    continue;
+                }
+                int minX = chunk.getPos().getMinBlockX();
+                int minZ = chunk.getPos().getMinBlockZ();
+                LevelChunkSection[] sections = chunk.getSections();
+                for (int s = 0; s < sections.length; s++) {
+                    PalettedContainer<BlockState> before = this.sectionsBefore[i][s];
+                    PalettedContainer<BlockState> after = sections[s].getStates();
+                    int minY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(s));
+                    for (int y = 0; y < 16; y++) {
+                        for (int z = 0; z < 16; z++) {
+                            for (int x = 0; x < 16; x++) {
+                                BlockState state = after.get(x, y, z);
+                                if (state != before.get(x, y, z)) {
+                                    positions.add(relative(minX + x, minY + y, minZ + z));
+                                    states.add(state);
+                                }
+                            }
+                        }
+                    }
+                }
+
+                ShortList[] marks = chunk.getPostProcessing();
+                for (int s = 0; s < marks.length; s++) {
+                    if (marks[s] == null) {
+                        continue;
+                    }
+                    ShortList old = s < this.postProcessingBefore[i].length ? this.postProcessingBefore[i][s] : null;
+                    for (int m = 0; m < marks[s].size(); m++) {
+                        short packed = marks[s].getShort(m);
+                        if (old == null || !old.contains(packed)) {
+                            postProcessing.add(relative(ProtoChunk.unpackOffsetCoordinates(packed,
+                                    chunk.getSectionYFromSectionIndex(s), chunk.getPos())));
+                        }
+                    }
+                }
+            }
+
+            Long2ObjectOpenHashMap<CompoundTag> blockEntities = new Long2ObjectOpenHashMap<>();
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+            for (int i = 0; i < positions.size(); i++) {
+                if (!states.get(i).hasBlockEntity()) {
+                    continue;
+                }
+                long relative = positions.getLong(i);
+                BlockEntity blockEntity = level.getBlockEntity(offset(pos, relative, this.baseX, this.baseZ));
+                if (blockEntity != null) {
+                    blockEntities.put(relative, blockEntity.saveWithFullMetadata(level.registryAccess()));
+                }
+            }
+
+            return new DecorationRecord(positions.toLongArray(), states.toArray(new BlockState[0]),
+                    postProcessing.toLongArray(), blockEntities,
+                    List.copyOf(this.blockTicks), List.copyOf(this.fluidTicks), wrappedReferences);
+        }
+
+        @Override
+        public String toString() {
+            return "DecorationRecord.Recorder[" + this.origin + "]";
+        }
+
+        /** Passes ticks through to the region and keeps a relative copy. */
+        private final class RecordingTickAccess<T> implements LevelTickAccess<T> {
+            private final LevelTickAccess<T> delegate;
+            private final List<RecordedTick<T>> recorded;
+
+            RecordingTickAccess(LevelTickAccess<T> delegate, List<RecordedTick<T>> recorded) {
+                this.delegate = delegate;
+                this.recorded = recorded;
+            }
+
+            @Override
+            public void schedule(ScheduledTick<T> tick) {
+                this.delegate.schedule(tick);
+                this.recorded.add(new RecordedTick<>(tick.type(), relative(tick.pos()),
+                        tick.triggerTick() - Recorder.this.gameTime, tick.priority()));
+            }
+
+            @Override
+            public boolean hasScheduledTick(BlockPos pos, T type) {
+                return this.delegate.hasScheduledTick(pos, type);
+            }
+
+            @Override
+            public boolean willTickThisTick(BlockPos pos, T type) {
+                return this.delegate.willTickThisTick(pos, type);
+            }
+
+            @Override
+            public int count() {
+                return this.delegate.count();
+            }
+        }
+    }
+}
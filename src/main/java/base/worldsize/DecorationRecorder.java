@@ -0,0 +1,23 @@
+package base.worldsize;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.Structure;
+
+import java.util.Map;
+
+/**
+ * Implemented (via mixin) by WorldGenRegion so the torus generator can record
+ * what decoration of one chunk writes into the region. See {@link DecorationRecord}.
+ */
+public interface DecorationRecorder {
+
+    void worldsize$startRecording(ChunkPos origin);
+
+    /**
+     * Stop recording.
+     *
+     * @return the record, or null if nothing replayable was recorded
+     */
+    DecorationRecord worldsize$stopRecording(Map<Structure, LongSet> wrappedReferences);
+}
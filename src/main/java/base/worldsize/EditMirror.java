@@ -0,0 +1,480 @@
+package base.worldsize;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.ShortIterator;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Clearable;
+import net.minecraft.world.Container;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mirrors player edits between the copies of a wrap class, so a build next
+ * to the seam shows up on the other side of it.
+ *
+ * Alias chunks are separate LevelChunks (see TorusChunkGenerator), so a
+ * change at (x, y, z) has to be repeated at every loaded
+ * (x + i·sizeBlocksX, y, z + j·sizeBlocksZ). Doing that inside setBlock,
+ * one block and one packet at a time, would multiply the cost of every edit.
+ * Instead:
+ *
+ * 1. Block changes of a live chunk made while a player breaks, places or
+ *    uses something, or while a command runs (ServerPlayerGameModeMixin,
+ *    CommandsMixin), mark their position dirty in their section. Everything
+ *    else — fluid flow, crop growth, fire, redstone, furnaces lighting up —
+ *    is left to each copy's own ticking; mirroring it would make the copies
+ *    feed the same change back and forth.
+ * 2. Once per tick the dirty positions of each section are read back from
+ *    the chunk that changed them and written into the same section of every
+ *    other loaded copy, without neighbour updates — the copies' neighbours
+ *    are mirrored themselves. Vanilla's ChunkHolder collects the changed
+ *    positions per section and sends one section update packet per changed
+ *    alias section.
+ * 3. The latest state of every mirrored position, with the game time it
+ *    was mirrored at, is kept per wrap class section, in one file per
+ *    {@value #GROUP_CHUNKS}×{@value #GROUP_CHUNKS} canonical chunks
+ *    ({@code worldsize_edits_<dimension>/} in the world folder). Only the
+ *    most recently used groups stay in memory, and only changed groups are
+ *    written. Copies that are not loaded are left alone.
+ * 4. Every chunk carries the game time of the last edit it has taken, saved
+ *    with it ({@link EditStamped}). When a chunk is loaded or generated, only
+ *    the edits of its wrap class made after that are applied, before it is
+ *    sent to anyone — once, not on every load, so whatever the chunk's own
+ *    ticking, explosions or mobs did to an edited block since is kept.
+ *
+ * ITEMS are neither copied nor destroyed. Block entity data is copied along
+ * with a mirrored block unless the block entity holds items (chests,
+ * furnaces, lecterns, campfires — anything {@link Clearable}): those copies
+ * get a fresh, empty block entity. A copy whose block entity at an edited
+ * position holds items of its own keeps that block — the edit is skipped
+ * there — since overwriting it would delete them. Either way the copy is no
+ * longer pristine. Later changes to a block entity that do not change the
+ * block (inventories, sign text edited afterwards) are not mirrored.
+ */
+public final class EditMirror {
+
+    private static final Map<ResourceKey<Level>, EditMirror> MIRRORS = new LinkedHashMap<>();
+
+    private static final int FILE_VERSION = 1;
+
+    /** Edits are stored in groups of GROUP_CHUNKS² canonical chunks, one file each. */
+    private static final int GROUP_SHIFT = 5;
+    private static final int GROUP_CHUNKS = 1 << GROUP_SHIFT;
+
+    /** Groups kept in memory per dimension; unsaved ones are written when they are dropped. */
+    private static final int CACHED_GROUPS = 64;
+
+    /** Ticks between writes of changed groups; they are also written on shutdown. */
+    private static final int SAVE_INTERVAL_TICKS = 1200;
+
+    /** Mirrored blocks replace the block as-is: no drops, no onPlace, no neighbour updates. */
+    private static final int MIRROR_FLAGS = Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE
+            | Block.UPDATE_SKIP_BLOCK_ENTITY_SIDEEFFECTS | Block.UPDATE_SKIP_ON_PLACE;
+
+    /** Set while mirrored blocks are written, so they are not recorded as edits themselves. */
+    private static boolean applying;
+
+    /** Nesting depth of player actions and commands whose block changes are mirrored. */
+    private static int explicitEdits;
+
+    /** The latest mirrored state of one position, and the game time it was mirrored at. */
+    private record Edit(BlockState state, CompoundTag blockEntity, long time) {
+    }
+
+    /** The edits of GROUP_CHUNKS² wrap classes: wrapped section → position in section → edit. */
+    private static final class Group {
+        final Long2ObjectOpenHashMap<Short2ObjectOpenHashMap<Edit>> sections = new Long2ObjectOpenHashMap<>();
+        boolean unsaved;
+    }
+
+    private final ServerLevel level;
+    private final TorusContext torus;
+    private final Path directory;
+    private final HolderGetter<Block> blocks;
+
+    /** Most recently used groups, keyed by group position. */
+    private final LinkedHashMap<Long, Group> groups = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Group> eldest) {
+            if (size() <= CACHED_GROUPS) {
+                return false;
+            }
+            if (eldest.getValue().unsaved) {
+                writeGroup(eldest.getKey(), eldest.getValue());
+            }
+            return true;
+        }
+    };
+
+    /** Positions changed this tick: section (absolute) → positions in the section. */
+    private final Long2ObjectOpenHashMap<ShortOpenHashSet> dirty = new Long2ObjectOpenHashMap<>();
+
+    private long mirroredBlocks;
+
+    private EditMirror(ServerLevel level, TorusContext torus) {
+        this.level = level;
+        this.torus = torus;
+        String dimension = level.dimension().identifier().toString().replace(':', '_').replace('/', '_');
+        this.directory = level.getServer().getWorldPath(LevelResource.ROOT).resolve("worldsize_edits_" + dimension);
+        this.blocks = level.registryAccess().lookupOrThrow(Registries.BLOCK);
+    }
+
+    private static EditMirror get(ServerLevel level, TorusContext torus) {
+        return MIRRORS.computeIfAbsent(level.dimension(), dimension -> new EditMirror(level, torus));
+    }
+
+    // =========================================================================
+    // Hooks
+    // =========================================================================
+
+    /** A player action or command starts; its block changes are mirrored. Server thread only. */
+    public static void beginExplicitEdit() {
+        explicitEdits++;
+    }
+
+    public static void endExplicitEdit() {
+        if (explicitEdits > 0) {
+            explicitEdits--;
+        }
+    }
+
+    /** Whether block changes made now are mirrored (cheap; checked on every setBlockState). */
+    public static boolean isRecording() {
+        return explicitEdits > 0 && !applying && WorldSizeConfig.MIRROR_EDITS;
+    }
+
+    /**
+     * A block of a live chunk changed during a player action or command.
+     * Server thread only (LevelChunkMixin).
+     */
+    public static void record(ServerLevel level, BlockPos pos) {
+        TorusContext torus = TorusContext.of(level);
+        if (torus == null) {
+            return;
+        }
+        get(level, torus).dirty.computeIfAbsent(SectionPos.asLong(pos), k -> new ShortOpenHashSet())
+                .add(SectionPos.sectionRelativePos(pos));
+    }
+
+    /**
+     * Bring a chunk that was just loaded or generated up to date with the
+     * edits made to its wrap class since its edit stamp, and stamp it. Runs
+     * whenever a chunk becomes FULL; a chunk that is already up to date takes
+     * nothing.
+     */
+    public static void applyPending(ServerLevel level, LevelChunk chunk) {
+        if (!WorldSizeConfig.MIRROR_EDITS) {
+            return;
+        }
+        TorusContext torus = TorusContext.of(level);
+        if (torus == null) {
+            return;
+        }
+        EditMirror mirror = get(level, torus);
+        int wrapX = torus.wrapChunkX(chunk.getPos().x);
+        int wrapZ = torus.wrapChunkZ(chunk.getPos().z);
+        Group group = mirror.group(wrapX, wrapZ);
+        long stamp = ((EditStamped) chunk).worldsize$editStamp();
+        if (!group.sections.isEmpty()) {
+            for (int sectionY = chunk.getMinSectionY(); sectionY <= chunk.getMaxSectionY(); sectionY++) {
+                Short2ObjectOpenHashMap<Edit> edits = group.sections.get(SectionPos.asLong(wrapX, sectionY, wrapZ));
+                if (edits != null) {
+                    mirror.apply(chunk, sectionY, edits, stamp);
+                }
+            }
+        }
+        ((EditStamped) chunk).worldsize$setEditStamp(level.getGameTime());
+    }
+
+    /** Mirror this tick's changes into the loaded copies, and save changed groups now and then. */
+    public static void tick(MinecraftServer server) {
+        // A player action or command that threw never got to end its scope
+        explicitEdits = 0;
+        if (MIRRORS.isEmpty()) {
+            return;
+        }
+        boolean save = server.getTickCount() % SAVE_INTERVAL_TICKS == 0;
+        for (EditMirror mirror : MIRRORS.values()) {
+            if (!mirror.dirty.isEmpty()) {
+                mirror.flush();
+            }
+            if (save) {
+                mirror.writeGroups();
+            }
+        }
+    }
+
+    /** Flush and write every changed group, then forget them (server stopping). */
+    public static void saveAll() {
+        for (EditMirror mirror : MIRRORS.values()) {
+            if (!mirror.dirty.isEmpty()) {
+                mirror.flush();
+            }
+            mirror.writeGroups();
+        }
+        MIRRORS.clear();
+    }
+
+    public static String describe(ServerLevel level) {
+        EditMirror mirror = MIRRORS.get(level.dimension());
+        if (mirror == null) {
+            return "Edit mirror: nothing mirrored in this dimension";
+        }
+        long sections = 0;
+        long positions = 0;
+        int unsaved = 0;
+        for (Group group : mirror.groups.values()) {
+            sections += group.sections.size();
+            for (Short2ObjectOpenHashMap<Edit> edits : group.sections.values()) {
+                positions += edits.size();
+            }
+            if (group.unsaved) {
+                unsaved++;
+            }
+        }
+        return String.format("Edit mirror: %d positions in %d sections across %d cached groups (%d unsaved), %d blocks mirrored this session",
+                positions, sections, mirror.groups.size(), unsaved, mirror.mirroredBlocks);
+    }
+
+    // =========================================================================
+    // Per-tick work
+    // =========================================================================
+
+    private void flush() {
+        long now = this.level.getGameTime();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (Long2ObjectMap.Entry<ShortOpenHashSet> entry : this.dirty.long2ObjectEntrySet()) {
+            long section = entry.getLongKey();
+            int chunkX = SectionPos.x(section);
+            int sectionY = SectionPos.y(section);
+            int chunkZ = SectionPos.z(section);
+            LevelChunk source = this.level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (source == null) {
+                continue;
+            }
+            Short2ObjectOpenHashMap<Edit> changed = new Short2ObjectOpenHashMap<>(entry.getValue().size());
+            for (ShortIterator it = entry.getValue().iterator(); it.hasNext(); ) {
+                short packed = it.nextShort();
+                set(pos, chunkX, sectionY, chunkZ, packed);
+                changed.put(packed, new Edit(source.getBlockState(pos), mirroredData(source.getBlockEntity(pos)), now));
+            }
+            // The source holds its own edits; a reload must not apply them over later ticking
+            ((EditStamped) source).worldsize$setEditStamp(now);
+
+            int wrapX = this.torus.wrapChunkX(chunkX);
+            int wrapZ = this.torus.wrapChunkZ(chunkZ);
+            Group group = group(wrapX, wrapZ);
+            group.sections.computeIfAbsent(SectionPos.asLong(wrapX, sectionY, wrapZ), k -> new Short2ObjectOpenHashMap<>())
+                    .putAll(changed);
+            group.unsaved = true;
+            applyToLoadedCopies(wrapX, sectionY, wrapZ, changed, now);
+        }
+        this.dirty.clear();
+    }
+
+    /** Block entity data worth copying: none for block entities that hold items. */
+    private CompoundTag mirroredData(BlockEntity blockEntity) {
+        if (blockEntity == null || blockEntity instanceof Clearable) {
+            return null;
+        }
+        return blockEntity.saveWithFullMetadata(this.level.registryAccess());
+    }
+
+    /**
+     * Loaded alias chunks only exist within view distance (plus the seam
+     * pre-warm radius) of the canonical rectangle, so only the laps that
+     * reach that far are looked up.
+     */
+    private void applyToLoadedCopies(int chunkX, int sectionY, int chunkZ, Short2ObjectOpenHashMap<Edit> edits, long now) {
+        int reach = this.level.getServer().getPlayerList().getViewDistance() + SeamPrewarmer.radius(this.level.getServer()) + 1;
+        int sizeX = this.torus.sizeChunksX();
+        int sizeZ = this.torus.sizeChunksZ();
+        for (int lapZ = Math.floorDiv(-reach - chunkZ, sizeZ); lapZ <= Math.floorDiv(sizeZ + reach - 1 - chunkZ, sizeZ); lapZ++) {
+            for (int lapX = Math.floorDiv(-reach - chunkX, sizeX); lapX <= Math.floorDiv(sizeX + reach - 1 - chunkX, sizeX); lapX++) {
+                LevelChunk copy = this.level.getChunkSource().getChunkNow(chunkX + lapX * sizeX, chunkZ + lapZ * sizeZ);
+                if (copy != null) {
+                    apply(copy, sectionY, edits, Long.MIN_VALUE);
+                    ((EditStamped) copy).worldsize$setEditStamp(now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the edits of one section made after {@code after} into one copy.
+     * Positions that already hold the edited state are skipped — including
+     * the copy the change was made in — so their block entities are left
+     * alone. So are positions whose block entity holds items.
+     *
+     * A copy that kept its own items, or got an empty block entity in place
+     * of one holding items, no longer matches its canonical chunk, so it is
+     * not pristine any more and is never stored as a reference to it (see
+     * ChunkMapMixin).
+     */
+    private void apply(LevelChunk chunk, int sectionY, Short2ObjectOpenHashMap<Edit> edits, long after) {
+        int chunkX = chunk.getPos().x;
+        int chunkZ = chunk.getPos().z;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        applying = true;
+        try {
+            for (Short2ObjectMap.Entry<Edit> entry : edits.short2ObjectEntrySet()) {
+                Edit edit = entry.getValue();
+                if (edit.time <= after) {
+                    continue;
+                }
+                set(pos, chunkX, sectionY, chunkZ, entry.getShortKey());
+                if (chunk.getBlockState(pos) == edit.state) {
+                    continue;
+                }
+                if (holdsItems(chunk.getBlockEntity(pos))) {
+                    ((PristineChunk) chunk).worldsize$setPristine(false);
+                    continue;
+                }
+                chunk.setBlockState(pos, edit.state, MIRROR_FLAGS);
+                if (edit.blockEntity != null) {
+                    BlockEntity blockEntity = BlockEntity.loadStatic(pos.immutable(), edit.state, edit.blockEntity,
+                            this.level.registryAccess());
+                    if (blockEntity != null) {
+                        chunk.setBlockEntity(blockEntity);
+                    }
+                } else if (chunk.getBlockEntity(pos) instanceof Clearable) {
+                    ((PristineChunk) chunk).worldsize$setPristine(false);
+                }
+                this.level.getChunkSource().blockChanged(pos);
+                this.mirroredBlocks++;
+            }
+        } finally {
+            applying = false;
+        }
+    }
+
+    /** Non-container holders (lecterns, jukeboxes, campfires) are assumed to hold something. */
+    private static boolean holdsItems(BlockEntity blockEntity) {
+        if (blockEntity instanceof Container container) {
+            return !container.isEmpty();
+        }
+        return blockEntity instanceof Clearable;
+    }
+
+    private static void set(BlockPos.MutableBlockPos pos, int chunkX, int sectionY, int chunkZ, short packed) {
+        pos.set(SectionPos.sectionToBlockCoord(chunkX, SectionPos.sectionRelativeX(packed)),
+                SectionPos.sectionToBlockCoord(sectionY, SectionPos.sectionRelativeY(packed)),
+                SectionPos.sectionToBlockCoord(chunkZ, SectionPos.sectionRelativeZ(packed)));
+    }
+
+    // =========================================================================
+    // Group files
+    // =========================================================================
+
+    private Group group(int wrapX, int wrapZ) {
+        long key = ((long) (wrapX >> GROUP_SHIFT) << 32) | ((wrapZ >> GROUP_SHIFT) & 0xFFFFFFFFL);
+        Group group = this.groups.get(key);
+        if (group == null) {
+            group = readGroup(key);
+            this.groups.put(key, group);
+        }
+        return group;
+    }
+
+    private Path groupFile(long key) {
+        return this.directory.resolve("g." + (int) (key >> 32) + "." + (int) key + ".bin");
+    }
+
+    private Group readGroup(long key) {
+        Group group = new Group();
+        Path file = groupFile(key);
+        if (!Files.exists(file)) {
+            return group;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != FILE_VERSION) {
+                WorldSize.LOGGER.warn("[WorldSize] Ignoring edit log {} with unknown version", file);
+                return group;
+            }
+            int sections = in.readInt();
+            for (int i = 0; i < sections; i++) {
+                long section = in.readLong();
+                int count = in.readInt();
+                Short2ObjectOpenHashMap<Edit> edits = new Short2ObjectOpenHashMap<>(count);
+                for (int j = 0; j < count; j++) {
+                    short packed = in.readShort();
+                    long time = in.readLong();
+                    BlockState state = NbtUtils.readBlockState(this.blocks, NbtIo.read(in));
+                    CompoundTag blockEntity = in.readBoolean() ? NbtIo.read(in) : null;
+                    edits.put(packed, new Edit(state, blockEntity, time));
+                }
+                group.sections.put(section, edits);
+            }
+        } catch (IOException e) {
+            WorldSize.LOGGER.warn("[WorldSize] Could not read edit log {}", file, e);
+        }
+        return group;
+    }
+
+    private void writeGroups() {
+        for (Map.Entry<Long, Group> entry : this.groups.entrySet()) {
+            if (entry.getValue().unsaved) {
+                writeGroup(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void writeGroup(long key, Group group) {
+        Path file = groupFile(key);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(this.directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+                out.writeInt(FILE_VERSION);
+                out.writeInt(group.sections.size());
+                for (Long2ObjectMap.Entry<Short2ObjectOpenHashMap<Edit>> section : group.sections.long2ObjectEntrySet()) {
+                    out.writeLong(section.getLongKey());
+                    out.writeInt(section.getValue().size());
+                    for (Short2ObjectMap.Entry<Edit> edit : section.getValue().short2ObjectEntrySet()) {
+                        out.writeShort(edit.getShortKey());
+                        out.writeLong(edit.getValue().time);
+                        NbtIo.write(NbtUtils.writeBlockState(edit.getValue().state), out);
+                        out.writeBoolean(edit.getValue().blockEntity != null);
+                        if (edit.getValue().blockEntity != null) {
+                            NbtIo.write(edit.getValue().blockEntity, out);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            group.unsaved = false;
+        } catch (IOException e) {
+            WorldSize.LOGGER.warn("[WorldSize] Could not write edit log {}", file, e);
+        }
+    }
+}
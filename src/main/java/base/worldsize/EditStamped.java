@@ -0,0 +1,15 @@
+package base.worldsize;
+
+/**
+ * Implemented (via mixin) by ChunkAccess and its saved form to record which
+ * mirrored edits a chunk has already taken: every edit of its wrap class made
+ * at or before the stamp (a game time) is in its blocks, or was overwritten
+ * there since. Saved with the chunk, so a reload only applies newer edits.
+ * See EditMirror.
+ */
+public interface EditStamped {
+
+    long worldsize$editStamp();
+
+    void worldsize$setEditStamp(long stamp);
+}
@@ -0,0 +1,119 @@
+package base.worldsize;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.lighting.ChunkSkyLightSources;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+
+/**
+ * Sky and block light of one lit canonical chunk, so an alias with the same
+ * blocks can take it as-is instead of propagating every light source again.
+ *
+ * Light sections extend one section below and above the build height; a
+ * null layer means the engine kept no data there, and nothing is queued for
+ * it. Homogeneous layers (open sky, solid rock) copy without allocating.
+ *
+ * Queued layers are handed to the light engine like light loaded from disk,
+ * so the engine only has to check what crosses the chunk's edges
+ * ({@link #relightEdges}). That is only valid while the neighbours hold
+ * their canonical blocks too; next to a diverged neighbour the alias is lit
+ * from scratch (see ChunkStatusTasksMixin).
+ */
+public final class LightTemplate {
+
+    private final int minSection;
+    private final DataLayer[] sky;
+    private final DataLayer[] block;
+
+    private LightTemplate(int minSection, DataLayer[] sky, DataLayer[] block) {
+        this.minSection = minSection;
+        this.sky = sky;
+        this.block = block;
+    }
+
+    /**
+     * Copy the light of a chunk whose lighting has completed. The engine's
+     * visible section data is safe to read from the server thread.
+     */
+    public static LightTemplate capture(LevelLightEngine engine, ChunkPos pos) {
+        int minSection = engine.getMinLightSection();
+        int count = engine.getLightSectionCount();
+        DataLayer[] sky = new DataLayer[count];
+        DataLayer[] block = new DataLayer[count];
+        for (int i = 0; i < count; i++) {
+            SectionPos section = SectionPos.of(pos, minSection + i);
+            sky[i] = copy(engine.getLayerListener(LightLayer.SKY).getDataLayerData(section));
+            block[i] = copy(engine.getLayerListener(LightLayer.BLOCK).getDataLayerData(section));
+        }
+        return new LightTemplate(minSection, sky, block);
+    }
+
+    private static DataLayer copy(DataLayer layer) {
+        return layer != null ? layer.copy() : null;
+    }
+
+    /**
+     * Queue this light for another chunk of the same wrap class. Must run
+     * before the chunk's light is initialized, so the engine takes it as
+     * stored data.
+     */
+    public void queueInto(LevelLightEngine engine, ChunkPos target) {
+        for (int i = 0; i < this.sky.length; i++) {
+            SectionPos section = SectionPos.of(target, this.minSection + i);
+            if (this.sky[i] != null) {
+                engine.queueSectionData(LightLayer.SKY, section, this.sky[i].copy());
+            }
+            if (this.block[i] != null) {
+                engine.queueSectionData(LightLayer.BLOCK, section, this.block[i].copy());
+            }
+        }
+    }
+
+    /**
+     * A queued chunk's own sources are never propagated, so light that they
+     * would carry into neighbours lit before it — neighbours that are not
+     * copies themselves — is missing there. Re-check every block light
+     * source close enough to an edge to reach across it.
+     *
+     * Sky light crosses edges sideways, under overhangs and into cave mouths.
+     * Each edge column is re-checked where its sky light starts: the lowest
+     * position lit straight from the sky and the block it rests on. Light the
+     * neighbours took from this chunk's copy is re-propagated from there.
+     */
+    public static void relightEdges(LevelLightEngine engine, ChunkAccess chunk) {
+        chunk.findBlockLightSources((pos, state) -> {
+            if (distanceToEdge(pos) < state.getLightEmission() - 1) {
+                engine.checkBlock(pos);
+            }
+        });
+
+        ChunkSkyLightSources skySources = chunk.getSkyLightSources();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int minX = chunk.getPos().getMinBlockX();
+        int minZ = chunk.getPos().getMinBlockZ();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                if (x != 0 && x != 15 && z != 0 && z != 15) {
+                    continue;
+                }
+                int lowest = skySources.getLowestSourceY(x, z);
+                if (lowest > chunk.getMinY()) {
+                    engine.checkBlock(pos.set(minX + x, lowest - 1, minZ + z));
+                }
+                if (lowest < chunk.getMaxY()) {
+                    engine.checkBlock(pos.set(minX + x, lowest, minZ + z));
+                }
+            }
+        }
+    }
+
+    private static int distanceToEdge(BlockPos pos) {
+        int x = pos.getX() & 15;
+        int z = pos.getZ() & 15;
+        return Math.min(Math.min(x, 15 - x), Math.min(z, 15 - z));
+    }
+}
@@ -0,0 +1,26 @@
+package base.worldsize;
+
+/**
+ * Implemented (via mixin) by ChunkAccess to track whether a chunk still holds
+ * nothing but freshly generated terrain.
+ *
+ * A chunk is pristine when it was generated in this session (not loaded from
+ * disk) and nothing has touched it since it became a ticking LevelChunk.
+ * Pristine ALIAS chunks that match their canonical chunk are stored as a
+ * reference to it instead of a full copy. See ChunkMapMixin.
+ */
+public interface PristineChunk {
+
+    boolean worldsize$isPristine();
+
+    void worldsize$setPristine(boolean pristine);
+
+    /**
+     * From now on, any markUnsaved() call counts as a modification and
+     * clears the pristine flag.
+     */
+    void worldsize$startTrackingEdits();
+
+    /** Whether the chunk is live, i.e. its changes are no longer generation. */
+    boolean worldsize$isTrackingEdits();
+}
@@ -0,0 +1,90 @@
+package base.worldsize;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.Relative;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Wraps entities of every type back into the canonical square when they walk,
+ * fly, drift or get shot across the seam.
+ *
+ * HOW IT WORKS:
+ * Instead of scanning every player every tick, EntityMixin checks each
+ * position update against the canonical bounds of its level's torus
+ * context (a field read and four compares — entities deep inside the world
+ * or in non-torus dimensions cost nothing else). An entity that lands outside
+ * [0, sizeBlocksX) × [0, sizeBlocksZ) is queued once; at the end of the server tick the
+ * whole batch is teleported to its wrapped position.
+ *
+ * Teleports are same-dimension and keep velocity (Relative.DELTA), so
+ * projectiles keep flying and elytra flights keep their speed through the
+ * seam. Passengers are skipped: they travel with their root vehicle.
+ *
+ * Entities can be positioned off-thread during worldgen (spawnOriginalMobs),
+ * so the queue is concurrent; anything not yet added to its level is dropped
+ * and gets re-queued the next time it moves.
+ *
+ * CHUNK STREAMING ON WRAP:
+ * A wrapped player's view moves a full torus width away, so vanilla forgets
+ * the old view and streams the new one. This cannot be avoided by sending the
+ * destination chunks early: the client's chunk cache is a fixed square
+ * around its view center and discards anything outside it, and the
+ * destination chunks are different ChunkPos than the ones already on the
+ * client. The resend is paced by vanilla's PlayerChunkSender (nearest first,
+ * throttled by client acks); the server-side stall comes from destination
+ * chunks not being loaded yet, which is handled by pre-warming them.
+ */
+public final class SeamCrossing {
+
+    private static final ConcurrentLinkedQueue<Entity> PENDING = new ConcurrentLinkedQueue<>();
+
+    private SeamCrossing() {
+    }
+
+    public static void queue(Entity entity) {
+        PENDING.add(entity);
+    }
+
+    /** Wrap every entity queued during this tick. Server thread only. */
+    public static void tick(MinecraftServer server) {
+        Entity entity;
+        while ((entity = PENDING.poll()) != null) {
+            ((SeamTracked) entity).worldsize$clearSeamQueued();
+            wrap(entity);
+        }
+    }
+
+    private static void wrap(Entity entity) {
+        if (entity.isRemoved() || entity.isPassenger() || !(entity.level() instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        TorusContext torus = TorusContext.of(serverLevel);
+        if (torus == null || serverLevel.getEntity(entity.getId()) != entity) {
+            return;
+        }
+
+        double x = entity.getX();
+        double z = entity.getZ();
+        double newX = torus.wrapCoordinateX(x);
+        double newZ = torus.wrapCoordinateZ(z);
+        if (newX == x && newZ == z) {
+            return;
+        }
+        if (WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+            TorusMetrics.countWrap(TorusMetrics.WrapSite.ENTITY_SEAM);
+        }
+
+        entity.teleportTo(
+                serverLevel,
+                newX, entity.getY(), newZ,
+                Relative.DELTA,
+                entity.getYRot(), entity.getXRot(),
+                false
+        );
+        WorldSize.LOGGER.debug("[WorldSize] Wrapped {} from ({}, {}) to ({}, {})",
+                entity.getName().getString(), x, z, newX, newZ);
+    }
+}
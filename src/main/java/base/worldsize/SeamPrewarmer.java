@@ -0,0 +1,141 @@
+package base.worldsize;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.Identifier;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the chunks a player is about to land in BEFORE they cross the seam.
+ *
+ * When a player wraps, they are teleported a full torus width away into chunks
+ * that are usually cold, and the teleport then blocks on loading (or
+ * generating) them. This watches players moving towards an edge, predicts
+ * where they will come out on the other side and places a short-lived
+ * loading ticket there, so the chunks load asynchronously ahead of time.
+ *
+ * PREDICTION:
+ * The player's horizontal movement is followed to the edge of the canonical
+ * square. If that crossing lies within max(lookaheadBlocks,
+ * speed * lookaheadTicks), the wrapped crossing point is the landing zone —
+ * the same chunk for as long as the player keeps their heading, so its
+ * ticket is renewed all the way to the seam.
+ *
+ * TICKETS:
+ * A ticket lives lookaheadTicks plus a margin, so it is still there when the
+ * player arrives. While the prediction keeps pointing at the same landing
+ * chunk, its ticket is renewed once less than half of its lifetime is left.
+ * The radius covers the landing strip only (see WorldSizeConfig.PREWARM_RADIUS).
+ *
+ * BUDGET:
+ * At most maxTicketsPerTick new or renewed tickets are placed per tick across
+ * all players, and a landing chunk is not re-ticketed while its ticket is fresh.
+ */
+public final class SeamPrewarmer {
+
+    /** Loading-only ticket; expires on its own once the prediction stops renewing it. */
+    public static final TicketType SEAM_PREWARM = new TicketType(WorldSizeConfig.PREWARM_TICKET_TICKS, TicketType.FLAG_LOADING);
+
+    /** Per dimension: landing chunk (packed ChunkPos) → game time its ticket expires. Server thread only. */
+    private static final Map<ResourceKey<Level>, Long2LongMap> TICKETED = new HashMap<>();
+
+    private SeamPrewarmer() {
+    }
+
+    public static void register() {
+        Registry.register(BuiltInRegistries.TICKET_TYPE,
+                Identifier.fromNamespaceAndPath(WorldSize.MOD_ID, "seam_prewarm"), SEAM_PREWARM);
+    }
+
+    /** Predict and pre-load landing zones for every player near an edge. Server thread only. */
+    public static void tick(MinecraftServer server) {
+        if (WorldSizeConfig.PREWARM_LOOKAHEAD_BLOCKS <= 0) {
+            return;
+        }
+        int budget = WorldSizeConfig.PREWARM_MAX_TICKETS_PER_TICK;
+        int radius = radius(server);
+        for (ServerLevel level : server.getAllLevels()) {
+            TorusContext torus = TorusContext.of(level);
+            if (torus == null) {
+                continue;
+            }
+            long now = level.getGameTime();
+            Long2LongMap ticketed = TICKETED.computeIfAbsent(level.dimension(), dimension -> new Long2LongOpenHashMap());
+            ticketed.values().removeIf(expiry -> expiry <= now);
+
+            for (ServerPlayer player : level.players()) {
+                if (budget <= 0) {
+                    return;
+                }
+                ChunkPos landing = predictLanding(player, torus);
+                if (landing == null) {
+                    continue;
+                }
+                long key = landing.toLong();
+                if (ticketed.get(key) - now > WorldSizeConfig.PREWARM_TICKET_TICKS / 2) {
+                    continue;
+                }
+                // Re-adding a live ticket resets its lifetime
+                level.getChunkSource().addTicketWithRadius(SEAM_PREWARM, landing, radius);
+                ticketed.put(key, now + WorldSizeConfig.PREWARM_TICKET_TICKS);
+                budget--;
+            }
+        }
+    }
+
+    /** Chunk radius of a pre-warm ticket: the configured radius, or the view distance for -1. */
+    public static int radius(MinecraftServer server) {
+        return WorldSizeConfig.PREWARM_RADIUS < 0 ? server.getPlayerList().getViewDistance() : WorldSizeConfig.PREWARM_RADIUS;
+    }
+
+    /**
+     * @return the chunk the player will land in after wrapping, or null if
+     *         they are not heading across a seam within the look-ahead
+     */
+    private static ChunkPos predictLanding(ServerPlayer player, TorusContext torus) {
+        Vec3 movement = player.getKnownMovement();
+        double speed = Math.sqrt(movement.x * movement.x + movement.z * movement.z);
+        if (speed < 1.0E-3) {
+            return null;
+        }
+
+        double dirX = movement.x / speed;
+        double dirZ = movement.z / speed;
+        double distance = Math.max(WorldSizeConfig.PREWARM_LOOKAHEAD_BLOCKS, speed * WorldSizeConfig.PREWARM_LOOKAHEAD_TICKS);
+        double crossing = Math.min(
+                distanceToEdge(player.getX(), dirX, torus.sizeBlocksX()),
+                distanceToEdge(player.getZ(), dirZ, torus.sizeBlocksZ()));
+        if (crossing > distance) {
+            return null;
+        }
+        // Half a block past the edge, so the point wraps to the far side
+        double x = player.getX() + dirX * (crossing + 0.5);
+        double z = player.getZ() + dirZ * (crossing + 0.5);
+        return new ChunkPos(
+                torus.wrapBlockX((int) Math.floor(x)) >> 4,
+                torus.wrapBlockZ((int) Math.floor(z)) >> 4);
+    }
+
+    /** Distance along one axis of the heading to the edge of [0, size), or infinity if not moving along it. */
+    private static double distanceToEdge(double position, double direction, int size) {
+        if (direction > 1.0E-6) {
+            return Math.max(0.0, (size - position) / direction);
+        }
+        if (direction < -1.0E-6) {
+            return Math.max(0.0, position / -direction);
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,10 @@
+package base.worldsize;
+
+/**
+ * Implemented (via mixin) by Entity so an entity is queued for seam crossing
+ * at most once per tick. See {@link SeamCrossing}.
+ */
+public interface SeamTracked {
+
+    void worldsize$clearSeamQueued();
+}
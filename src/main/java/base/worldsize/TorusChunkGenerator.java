@@ -1,27 +1,54 @@
 package base.worldsize;
 
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
+import net.minecraft.core.HolderSet;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.WorldGenRegion;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelHeightAccessor;
 import net.minecraft.world.level.NoiseColumn;
 import net.minecraft.world.level.StructureManager;
 import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeManager;
 import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
+import net.minecraft.world.level.chunk.PalettedContainerFactory;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.levelgen.GenerationStep;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
 import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
 import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.WorldGenerationContext;
 import net.minecraft.world.level.levelgen.blending.Blender;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.TerrainAdjustment;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
+import net.minecraft.world.level.lighting.LevelLightEngine;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A chunk generator that delegates to NoiseBasedChunkGenerator to create torus-world terrain.
@@ -30,54 +57,122 @@ import java.util.concurrent.CompletableFuture;
  * Instead, we extend ChunkGenerator directly and DELEGATE to an internal
  * NoiseBasedChunkGenerator instance.
  *
- * KEY FIX: The previous implementation used a ThreadLocal<Boolean> to signal
- * torus mode to mixins. This FAILED because fillFromNoise() and createBiomes()
- * run asynchronously on background threads via CompletableFuture.supplyAsync().
- * The ThreadLocal was set on the calling thread but was never visible on the
- * worker thread where NoiseChunk.blockX()/blockZ() actually execute.
+ * TORUS CONTEXT (per dimension):
+ * Each generator owns an immutable {@link TorusContext} and hands it to its
+ * delegate, its biome source and every chunk it generates. The mixins read
+ * it from there, never from a global. This matters twice over:
+ * - Worldgen runs on background worker threads, so a ThreadLocal set on the
+ *   calling thread is never seen where NoiseChunk actually samples. A
+ *   context stored on the chunk is read once when the NoiseChunk is created.
+ * - Dimensions using a plain noise generator (the vanilla Nether and End)
+ *   never receive a context and stay infinite.
  *
- * NEW APPROACH: We use a static volatile boolean that is set to true once a
- * TorusChunkGenerator is constructed and remains true for the server's lifetime.
- * This works on ALL threads — main, worker, async — because it's a shared flag.
- *
- * Consequence: All dimensions (Overworld, Nether, End) will have torus wrapping.
- * This is consistent behavior for a torus world.
+ * ALIAS CHUNKS ARE SEPARATE LevelChunks (by design):
+ * Chunk (x, z) and (x + sizeChunksX, z) generate identically but are
+ * NOT the same object in memory. Mapping every alias ChunkPos onto one shared
+ * LevelChunk is not viable — the real position is baked into the LevelChunk
+ * itself and into everything keyed by it (ChunkMap holders and tickets,
+ * entity sections, the light engine, block ticks, region slots and the
+ * client's chunk cache). Instead the loaded-chunk footprint is bounded by the
+ * seam teleport: players always live inside the canonical rectangle, so alias
+ * chunks only exist within one view distance past each seam, i.e. at most
+ * (sizeChunksX + 2 * viewDistance) × (sizeChunksZ + 2 * viewDistance) chunks are loaded no matter how
+ * far players travel.
  */
 public class TorusChunkGenerator extends ChunkGenerator {
 
+    private static final Codec<Integer> SIZE_CODEC = Codec.intRange(1, TorusContext.MAX_SIZE_CHUNKS);
+
     public static final MapCodec<TorusChunkGenerator> CODEC = RecordCodecBuilder.mapCodec(instance ->
             instance.group(
                     BiomeSource.CODEC.fieldOf("biome_source").forGetter(gen -> gen.delegate.getBiomeSource()),
-                    NoiseGeneratorSettings.CODEC.fieldOf("settings").forGetter(gen -> gen.delegate.generatorSettings())
+                    NoiseGeneratorSettings.CODEC.fieldOf("settings").forGetter(gen -> gen.delegate.generatorSettings()),
+                    SIZE_CODEC.optionalFieldOf("size_chunks_x", WorldSize.WORLD_SIZE_CHUNKS).forGetter(gen -> gen.torus.sizeChunksX()),
+                    SIZE_CODEC.optionalFieldOf("size_chunks_z", WorldSize.WORLD_SIZE_CHUNKS).forGetter(gen -> gen.torus.sizeChunksZ())
             ).apply(instance, TorusChunkGenerator::new)
     );
 
     /** The vanilla noise generator we delegate all actual generation to. */
     private final NoiseBasedChunkGenerator delegate;
 
-    /**
-     * GLOBAL FLAG: Is a torus world active?
-     *
-     * Set to true when a TorusChunkGenerator is constructed. This is a volatile
-     * boolean (not ThreadLocal) so it is visible on ALL threads, including the
-     * background worker threads used by fillFromNoise() and createBiomes().
-     *
-     * This is the critical fix — ThreadLocal does NOT propagate to
-     * CompletableFuture worker threads.
-     */
-    private static volatile boolean TORUS_ACTIVE = false;
+    /** Size and wrap rules of this dimension, shared with everything that wraps for it. */
+    private final TorusContext torus;
+
+    /** Filled terrain of each canonical chunk, copied into its aliases by fillFromNoise(). */
+    private final CanonicalChunkCache<ChunkTemplate> templateCache = new CanonicalChunkCache<>(WorldSizeConfig.TEMPLATE_CACHE_MAX_CHUNKS);
+
+    /** Surfaced terrain of each canonical chunk, copied into its aliases by buildSurface(). */
+    private final CanonicalChunkCache<ChunkTemplate> surfaceCache = new CanonicalChunkCache<>(WorldSizeConfig.TEMPLATE_CACHE_MAX_CHUNKS);
 
-    public TorusChunkGenerator(BiomeSource biomeSource, Holder<NoiseGeneratorSettings> settings) {
+    /** Carved terrain of each canonical chunk, copied into its aliases by applyCarvers(). */
+    private final CanonicalChunkCache<ChunkTemplate> carvedCache = new CanonicalChunkCache<>(WorldSizeConfig.TEMPLATE_CACHE_MAX_CHUNKS);
+
+    /** Decoration of each canonical chunk, replayed around its aliases by applyBiomeDecoration(). */
+    private final CanonicalChunkCache<DecorationRecord> decorationCache = new CanonicalChunkCache<>(WorldSizeConfig.DECORATION_CACHE_MAX_CHUNKS);
+
+    /** Alias decorations checked against their record, and mismatches (-Dworldsize.verifyDecoration). */
+    private final AtomicInteger decorationChecks = new AtomicInteger();
+    private final AtomicInteger decorationMismatches = new AtomicInteger();
+
+    /** Light of each lit canonical chunk, queued for its aliases instead of relighting them. */
+    private final CanonicalChunkCache<LightTemplate> lightCache = new CanonicalChunkCache<>(WorldSizeConfig.LIGHT_CACHE_MAX_CHUNKS);
+
+    /** Structure starts of each canonical chunk, projected onto its aliases by createStructures(). */
+    private final CanonicalChunkCache<Map<Structure, StructureStart>> structureCache =
+            new CanonicalChunkCache<>(WorldSizeConfig.STRUCTURE_CACHE_MAX_CHUNKS);
+
+    /** Containers for scratch chunks that compute canonical structure starts, created on first use. */
+    private volatile PalettedContainerFactory scratchContainers;
+
+    /** Base heights and noise columns of the wrapped domain, for structure and spawn probes. */
+    private final BaseColumnCache columnCache;
+
+    public TorusChunkGenerator(BiomeSource biomeSource, Holder<NoiseGeneratorSettings> settings,
+                               int sizeChunksX, int sizeChunksZ) {
         super(biomeSource);
         this.delegate = new NoiseBasedChunkGenerator(biomeSource, settings);
+        this.torus = new TorusContext(sizeChunksX, sizeChunksZ);
+        this.columnCache = new BaseColumnCache(this.torus, WorldSizeConfig.BASE_COLUMN_CACHE_SIZE);
+
+        // Features and structures are placed with the delegate as their generator
+        ((TorusContextHolder) this).worldsize$setTorus(this.torus);
+        ((TorusContextHolder) this.delegate).worldsize$setTorus(this.torus);
+        ((TorusContextHolder) biomeSource).worldsize$setTorus(this.torus);
 
-        // Set the global flag — from this point, all noise generation will wrap coordinates
-        TORUS_ACTIVE = true;
+        // Serve wrapped biome lookups from a shared atlas instead of re-sampling climate
+        if (biomeSource instanceof BiomeAtlasHolder holder) {
+            holder.worldsize$setBiomeAtlas(new BiomeAtlas(this.torus, biomeSource, settings));
+        }
 
-        WorldSize.LOGGER.info("[WorldSize] TorusChunkGenerator created — torus wrapping is now ACTIVE globally");
-        WorldSize.LOGGER.info("[WorldSize] World size: {}x{} blocks ({}x{} chunks)",
-                WorldSize.WORLD_SIZE_BLOCKS, WorldSize.WORLD_SIZE_BLOCKS,
-                WorldSize.WORLD_SIZE_CHUNKS, WorldSize.WORLD_SIZE_CHUNKS);
+        WorldSize.LOGGER.info("[WorldSize] TorusChunkGenerator created — World size: {}", this.torus);
+    }
+
+    public TorusContext torus() {
+        return this.torus;
+    }
+
+    /**
+     * Drop every cached stage result and base column, so the next chunk of
+     * each wrap class is generated from scratch. The biome atlas is kept.
+     */
+    public void clearCaches() {
+        templateCache.clear();
+        surfaceCache.clear();
+        carvedCache.clear();
+        decorationCache.clear();
+        lightCache.clear();
+        structureCache.clear();
+        columnCache.clear();
+    }
+
+    /**
+     * Hand this dimension's context to a chunk before any NoiseChunk or
+     * SurfaceRules.Context is created for it. Every generation stage that may
+     * create one binds first — a proto chunk reloaded mid-generation has lost
+     * its (unsaved) context.
+     */
+    private void bind(ChunkAccess chunkAccess) {
+        ((TorusContextHolder) chunkAccess).worldsize$setTorus(this.torus);
     }
 
     @Override
@@ -86,7 +181,7 @@ public class TorusChunkGenerator extends ChunkGenerator {
     }
 
     // =========================================================================
-    // Delegation methods — no ThreadLocal manipulation needed anymore
+    // Delegation methods
     // =========================================================================
 
     @Override
@@ -96,11 +191,56 @@ public class TorusChunkGenerator extends ChunkGenerator {
             StructureManager structureManager,
             ChunkAccess chunkAccess
     ) {
-        // No ThreadLocal needed — TORUS_ACTIVE is a global volatile boolean
-        // visible on ALL threads including the async worker threads
-        return delegate.fillFromNoise(blender, randomState, structureManager, chunkAccess);
+        long start = TorusMetrics.start();
+        bind(chunkAccess);
+        ((PristineChunk) chunkAccess).worldsize$setPristine(true);
+        ((CanonicalContent) chunkAccess).worldsize$setMatchesCanonical(isTemplateEligible(blender, chunkAccess));
+        if (!templateCache.isEnabled() || !isTemplateEligible(blender, chunkAccess)) {
+            return timed(TorusMetrics.Stage.FILL_FROM_NOISE, chunkAccess, start,
+                    delegate.fillFromNoise(blender, randomState, structureManager, chunkAccess));
+        }
+
+        // Every chunk in the same wrap class fills identically — copy the
+        // canonical terrain if we already have it instead of sampling noise again
+        long key = torus.canonicalKey(chunkAccess.getPos());
+        ChunkTemplate template = templateCache.get(key);
+        if (template != null) {
+            template.applyTo(chunkAccess);
+            record(TorusMetrics.Stage.FILL_FROM_NOISE, chunkAccess, start);
+            return CompletableFuture.completedFuture(chunkAccess);
+        }
+
+        return timed(TorusMetrics.Stage.FILL_FROM_NOISE, chunkAccess, start,
+                delegate.fillFromNoise(blender, randomState, structureManager, chunkAccess)
+                        .thenApply(chunk -> {
+                            templateCache.put(key, ChunkTemplate.capture(chunk));
+                            return chunk;
+                        }));
+    }
+
+    /**
+     * A chunk's noise fill only depends on its wrapped position UNLESS something
+     * position-specific feeds into the density functions:
+     * - a Blender (old-world chunk blending at the real position), or
+     * - a Beardifier (structures with terrain adaptation, placed at real positions).
+     *
+     * Only chunks with neither may produce or consume a template.
+     */
+    private static boolean isTemplateEligible(Blender blender, ChunkAccess chunkAccess) {
+        if (blender != Blender.empty() || chunkAccess.getBlendingData() != null) {
+            return false;
+        }
+        return chunkAccess.getAllReferences().keySet().stream()
+                .allMatch(structure -> structure.terrainAdaptation() == TerrainAdjustment.NONE);
     }
 
+    /**
+     * Surface rules only write into the chunk being surfaced, so aliases copy
+     * the canonical result like a noise template. Besides skipping the rules,
+     * this means an eligible alias — noise, surface and carvers all copied —
+     * never builds a NoiseChunk (with its interpolators, caches and aquifer)
+     * at all; only canonical chunks pay for one.
+     */
     @Override
     public void buildSurface(
             WorldGenRegion region,
@@ -108,14 +248,142 @@ public class TorusChunkGenerator extends ChunkGenerator {
             RandomState randomState,
             ChunkAccess chunkAccess
     ) {
-        delegate.buildSurface(region, structureManager, randomState, chunkAccess);
+        surface(chunkAccess, () -> delegate.buildSurface(region, structureManager, randomState, chunkAccess));
+    }
+
+    /**
+     * The same surface pass without a WorldGenRegion, through the noise
+     * generator's region-less overload — for benchmarks and tools that have
+     * no ServerLevel.
+     */
+    public void buildSurface(
+            ChunkAccess chunkAccess,
+            WorldGenerationContext context,
+            RandomState randomState,
+            StructureManager structureManager,
+            BiomeManager biomeManager,
+            Registry<Biome> biomes
+    ) {
+        surface(chunkAccess, () -> delegate.buildSurface(chunkAccess, context, randomState, structureManager,
+                biomeManager, biomes, Blender.empty()));
+    }
+
+    private void surface(ChunkAccess chunkAccess, Runnable delegateSurface) {
+        long start = TorusMetrics.start();
+        bind(chunkAccess);
+        try {
+            if (copyFromCanonical(surfaceCache, chunkAccess)) {
+                return;
+            }
+            delegateSurface.run();
+            captureCanonical(surfaceCache, chunkAccess);
+            divergeIfAlias(chunkAccess);
+        } finally {
+            record(TorusMetrics.Stage.BUILD_SURFACE, chunkAccess, start);
+        }
     }
 
     @Override
     public void spawnOriginalMobs(WorldGenRegion worldGenRegion) {
-        delegate.spawnOriginalMobs(worldGenRegion);
+        long start = TorusMetrics.start();
+        try {
+            delegate.spawnOriginalMobs(worldGenRegion);
+        } finally {
+            record(TorusMetrics.Stage.SPAWN_ORIGINAL_MOBS, worldGenRegion.getCenter(), start);
+        }
+    }
+
+    // =========================================================================
+    // Structures
+    // =========================================================================
+
+    /**
+     * Structure starts are only computed for canonical chunks. Vanilla picks
+     * start chunks from the REAL position, so every lap would otherwise get a
+     * different set of structures (and pay for computing it). An alias gets
+     * copies of its canonical chunk's starts instead, moved by the lap offset;
+     * if the canonical chunk has not been generated yet, its starts are
+     * computed on a scratch chunk at the canonical position.
+     */
+    @Override
+    public void createStructures(
+            RegistryAccess registryAccess,
+            ChunkGeneratorStructureState structureState,
+            StructureManager structureManager,
+            ChunkAccess chunkAccess,
+            StructureTemplateManager templateManager,
+            ResourceKey<Level> dimension
+    ) {
+        ChunkPos pos = chunkAccess.getPos();
+        long key = torus.canonicalKey(pos);
+        if (!torus.isAlias(pos)) {
+            super.createStructures(registryAccess, structureState, structureManager, chunkAccess, templateManager, dimension);
+            structureCache.put(key, Map.copyOf(chunkAccess.getAllStarts()));
+            return;
+        }
+
+        Map<Structure, StructureStart> canonical = structureCache.get(key);
+        if (canonical == null) {
+            ProtoChunk scratch = new ProtoChunk(torus.canonicalPos(pos), UpgradeData.EMPTY, chunkAccess,
+                    scratchContainers(registryAccess), null);
+            super.createStructures(registryAccess, structureState, structureManager, scratch, templateManager, dimension);
+            canonical = Map.copyOf(scratch.getAllStarts());
+            structureCache.put(key, canonical);
+        }
+        if (canonical.isEmpty()) {
+            return;
+        }
+
+        StructurePieceSerializationContext context =
+                new StructurePieceSerializationContext(ResourceManager.Empty.INSTANCE, registryAccess, templateManager);
+        ChunkPos canonicalPos = torus.canonicalPos(pos);
+        int dx = (pos.x - canonicalPos.x) * 16;
+        int dz = (pos.z - canonicalPos.z) * 16;
+        for (Map.Entry<Structure, StructureStart> entry : canonical.entrySet()) {
+            if (!entry.getValue().isValid()) {
+                continue;
+            }
+            // Round-trip through NBT for an independent copy, then move its pieces
+            StructureStart copy = StructureStart.loadStaticStart(context,
+                    entry.getValue().createTag(context, pos), structureState.getLevelSeed());
+            if (copy != null) {
+                for (StructurePiece piece : copy.getPieces()) {
+                    piece.move(dx, 0, dz);
+                }
+                chunkAccess.setStartForStructure(entry.getKey(), copy);
+            }
+        }
+    }
+
+    private PalettedContainerFactory scratchContainers(RegistryAccess registryAccess) {
+        PalettedContainerFactory containers = scratchContainers;
+        if (containers == null) {
+            containers = PalettedContainerFactory.create(registryAccess);
+            scratchContainers = containers;
+        }
+        return containers;
+    }
+
+    /**
+     * The world holds only sizeChunksX × sizeChunksZ distinct chunks, so the
+     * search covers the canonical rectangle once and stops — see
+     * {@link TorusStructureSearch}.
+     */
+    @Override
+    public Pair<BlockPos, Holder<Structure>> findNearestMapStructure(
+            ServerLevel level,
+            HolderSet<Structure> structures,
+            BlockPos pos,
+            int searchRadius,
+            boolean skipKnownStructures
+    ) {
+        return TorusStructureSearch.findNearest(level, torus, structures, pos, searchRadius, skipKnownStructures);
     }
 
+    /**
+     * Carving only writes into the chunk being carved, so once a canonical
+     * chunk is carved its aliases copy the result like a noise template.
+     */
     @Override
     public void applyCarvers(
             WorldGenRegion region,
@@ -125,22 +393,236 @@ public class TorusChunkGenerator extends ChunkGenerator {
             StructureManager structureManager,
             ChunkAccess chunkAccess
     ) {
-        delegate.applyCarvers(region, seed, randomState, biomeManager, structureManager, chunkAccess);
+        long start = TorusMetrics.start();
+        bind(chunkAccess);
+        try {
+            if (copyFromCanonical(carvedCache, chunkAccess)) {
+                return;
+            }
+            delegate.applyCarvers(region, seed, randomState, biomeManager, structureManager, chunkAccess);
+            captureCanonical(carvedCache, chunkAccess);
+            divergeIfAlias(chunkAccess);
+        } finally {
+            record(TorusMetrics.Stage.APPLY_CARVERS, chunkAccess, start);
+        }
+    }
+
+    // =========================================================================
+    // Stage templates
+    // =========================================================================
+
+    /**
+     * Copy a stage's result from the canonical chunk into an eligible alias.
+     *
+     * @return true if the alias now holds the canonical result and the stage
+     *         must not run
+     */
+    private boolean copyFromCanonical(CanonicalChunkCache<ChunkTemplate> cache, ChunkAccess chunkAccess) {
+        ChunkPos pos = chunkAccess.getPos();
+        if (!cache.isEnabled() || !torus.isAlias(pos) || !isTemplateEligible(Blender.empty(), chunkAccess)) {
+            return false;
+        }
+        ChunkTemplate template = cache.get(torus.canonicalKey(pos));
+        if (template == null) {
+            return false;
+        }
+        template.applyTo(chunkAccess);
+        return true;
+    }
+
+    /**
+     * Store a stage's result of an eligible CANONICAL chunk. Surface and
+     * carver stages read real positions in places (surface depth noise, carver
+     * seeds), so the canonical result is the one every lap should show.
+     */
+    private void captureCanonical(CanonicalChunkCache<ChunkTemplate> cache, ChunkAccess chunkAccess) {
+        ChunkPos pos = chunkAccess.getPos();
+        if (cache.isEnabled() && !torus.isAlias(pos) && isTemplateEligible(Blender.empty(), chunkAccess)) {
+            cache.put(torus.canonicalKey(pos), ChunkTemplate.capture(chunkAccess));
+        }
     }
 
+    /** An alias that ran a stage itself no longer holds its canonical chunk's blocks. */
+    private void divergeIfAlias(ChunkAccess chunkAccess) {
+        if (torus.isAlias(chunkAccess.getPos())) {
+            ((CanonicalContent) chunkAccess).worldsize$setMatchesCanonical(false);
+        }
+    }
+
+    /**
+     * The delegate samples the column directly (not through NoiseChunk.forChunk),
+     * so NoiseChunkMixin never sees these calls — wrap explicitly here, then
+     * serve repeated probes of the same wrapped column from the cache.
+     */
     @Override
     public int getBaseHeight(int x, int z, Heightmap.Types heightmap, LevelHeightAccessor level, RandomState randomState) {
-        return delegate.getBaseHeight(x, z, heightmap, level, randomState);
+        int wrappedX = torus.wrapBlockX(x);
+        int wrappedZ = torus.wrapBlockZ(z);
+        if (!columnCache.accepts(level, randomState)) {
+            return delegate.getBaseHeight(wrappedX, wrappedZ, heightmap, level, randomState);
+        }
+
+        int height = columnCache.getHeight(heightmap, wrappedX, wrappedZ);
+        if (height == Integer.MIN_VALUE) {
+            height = delegate.getBaseHeight(wrappedX, wrappedZ, heightmap, level, randomState);
+            columnCache.putHeight(heightmap, wrappedX, wrappedZ, height);
+        }
+        return height;
+    }
+
+    /**
+     * {@link #getBaseHeight} without the base column cache, for callers that
+     * sample each column once across the whole world (TorusMapExport) and
+     * would otherwise fill a height table for every chunk.
+     */
+    public int sampleBaseHeight(int x, int z, Heightmap.Types heightmap, LevelHeightAccessor level, RandomState randomState) {
+        return delegate.getBaseHeight(torus.wrapBlockX(x), torus.wrapBlockZ(z), heightmap, level, randomState);
     }
 
     @Override
     public NoiseColumn getBaseColumn(int x, int z, LevelHeightAccessor level, RandomState randomState) {
-        return delegate.getBaseColumn(x, z, level, randomState);
+        int wrappedX = torus.wrapBlockX(x);
+        int wrappedZ = torus.wrapBlockZ(z);
+        if (!columnCache.accepts(level, randomState)) {
+            return delegate.getBaseColumn(wrappedX, wrappedZ, level, randomState);
+        }
+
+        NoiseColumn column = columnCache.getColumn(wrappedX, wrappedZ, level);
+        if (column == null) {
+            column = delegate.getBaseColumn(wrappedX, wrappedZ, level, randomState);
+            columnCache.putColumn(wrappedX, wrappedZ, level, column);
+        }
+        return column;
     }
 
+    /**
+     * Canonical chunks are decorated normally while the region records what
+     * the features write; aliases replay that record instead of running the
+     * feature pipeline (see {@link DecorationRecord} for when they can't).
+     */
     @Override
     public void applyBiomeDecoration(WorldGenLevel level, ChunkAccess chunkAccess, StructureManager structureManager) {
+        long start = TorusMetrics.start();
+        try {
+            ChunkPos pos = chunkAccess.getPos();
+            if (!decorationCache.isEnabled() || !(level instanceof DecorationRecorder recorder)) {
+                delegate.applyBiomeDecoration(level, chunkAccess, structureManager);
+                if (torus.isAlias(pos)) {
+                    divergeRegion(level, pos);
+                }
+                return;
+            }
+
+            long key = torus.canonicalKey(pos);
+            Map<Structure, LongSet> references = DecorationRecord.wrappedReferences(torus, chunkAccess);
+            if (torus.isAlias(pos)) {
+                DecorationRecord record = decorationCache.get(key);
+                if (record != null && record.matches(references) && WorldSizeConfig.VERIFY_DECORATION) {
+                    verifyDecoration(recorder, record, level, chunkAccess, structureManager);
+                } else if (record != null && record.matches(references)) {
+                    record.replay(level, pos);
+                } else {
+                    delegate.applyBiomeDecoration(level, chunkAccess, structureManager);
+                    divergeRegion(level, pos);
+                }
+                return;
+            }
+
+            recorder.worldsize$startRecording(pos);
+            delegate.applyBiomeDecoration(level, chunkAccess, structureManager);
+            DecorationRecord record = recorder.worldsize$stopRecording(references);
+            if (record != null) {
+                decorationCache.put(key, record);
+            }
+        } finally {
+            record(TorusMetrics.Stage.APPLY_BIOME_DECORATION, chunkAccess, start);
+        }
+    }
+
+    /**
+     * Decorate an alias for real and compare what it wrote around itself with
+     * the canonical chunk's record — the blocks and marks a replay would have
+     * written. Any difference means replaying would not give the alias its
+     * canonical content.
+     */
+    private void verifyDecoration(DecorationRecorder recorder, DecorationRecord canonical, WorldGenLevel level,
+                                  ChunkAccess chunkAccess, StructureManager structureManager) {
+        ChunkPos pos = chunkAccess.getPos();
+        recorder.worldsize$startRecording(pos);
         delegate.applyBiomeDecoration(level, chunkAccess, structureManager);
+        DecorationRecord alias = recorder.worldsize$stopRecording(canonical.references());
+        decorationChecks.incrementAndGet();
+        int differences = alias != null ? canonical.countDifferences(alias) : -1;
+        if (differences != 0) {
+            decorationMismatches.incrementAndGet();
+            divergeRegion(level, pos);
+            WorldSize.LOGGER.warn("[WorldSize] Decoration of alias {} differs from canonical chunk {}: {}",
+                    pos, torus.canonicalPos(pos), differences < 0 ? "record discarded" : differences + " blocks or marks");
+        }
+    }
+
+    /** Alias decorations compared with their canonical record so far (-Dworldsize.verifyDecoration). */
+    public int decorationChecks() {
+        return decorationChecks.get();
+    }
+
+    /** How many of those wrote something different from the canonical chunk. */
+    public int decorationMismatches() {
+        return decorationMismatches.get();
+    }
+
+    /**
+     * Features decorating an alias from its real position write into the
+     * whole 3×3 region, so none of those chunks match their canonical
+     * chunks any more.
+     */
+    private static void divergeRegion(WorldGenLevel level, ChunkPos center) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (level.hasChunk(center.x + dx, center.z + dz)) {
+                    ChunkAccess chunk = level.getChunk(center.x + dx, center.z + dz, ChunkStatus.EMPTY);
+                    ((CanonicalContent) chunk).worldsize$setMatchesCanonical(false);
+                }
+            }
+        }
+    }
+
+    // =========================================================================
+    // Light
+    // =========================================================================
+
+    /**
+     * Queue the canonical chunk's light for an alias that still holds exactly
+     * the canonical blocks, in place of propagating its light sources.
+     * Called as the alias's light is initialized (see ChunkStatusTasksMixin).
+     *
+     * @return true if light was queued and the alias counts as already lit
+     */
+    public boolean reuseCanonicalLight(LevelLightEngine lightEngine, ChunkAccess chunkAccess) {
+        ChunkPos pos = chunkAccess.getPos();
+        if (!lightCache.isEnabled() || !torus.isAlias(pos)
+                || !((CanonicalContent) chunkAccess).worldsize$matchesCanonical()) {
+            return false;
+        }
+        LightTemplate template = lightCache.get(torus.canonicalKey(pos));
+        if (template == null) {
+            return false;
+        }
+        template.queueInto(lightEngine, pos);
+        return true;
+    }
+
+    /**
+     * Keep the light of a canonical chunk that has just finished generating,
+     * if its blocks are the ones its aliases will have. Server thread only.
+     */
+    public void captureLight(LevelLightEngine lightEngine, ChunkAccess chunkAccess) {
+        ChunkPos pos = chunkAccess.getPos();
+        if (lightCache.isEnabled() && !torus.isAlias(pos)
+                && ((PristineChunk) chunkAccess).worldsize$isPristine()
+                && ((CanonicalContent) chunkAccess).worldsize$matchesCanonical()) {
+            lightCache.put(torus.canonicalKey(pos), LightTemplate.capture(lightEngine, pos));
+        }
     }
 
     @Override
@@ -170,25 +652,33 @@ public class TorusChunkGenerator extends ChunkGenerator {
             StructureManager structureManager,
             ChunkAccess chunkAccess
     ) {
-        // No ThreadLocal needed — works on async threads automatically
-        return delegate.createBiomes(randomState, blender, structureManager, chunkAccess);
+        long start = TorusMetrics.start();
+        bind(chunkAccess);
+        ((PristineChunk) chunkAccess).worldsize$setPristine(true);
+        return timed(TorusMetrics.Stage.CREATE_BIOMES, chunkAccess, start,
+                delegate.createBiomes(randomState, blender, structureManager, chunkAccess));
     }
 
-    /**
-     * Check if torus wrapping is active.
-     * Called by mixins to decide whether to wrap coordinates.
-     *
-     * Returns the global volatile boolean — visible on ALL threads.
-     */
-    public static boolean isTorusActive() {
-        return TORUS_ACTIVE;
+    // =========================================================================
+    // Stage timing
+    // =========================================================================
+
+    private void record(TorusMetrics.Stage stage, ChunkAccess chunkAccess, long start) {
+        record(stage, chunkAccess.getPos(), start);
     }
 
-    /**
-     * Deactivate torus mode (e.g., on server shutdown).
-     * Optional — the flag is automatically reset when the JVM restarts.
-     */
-    public static void deactivate() {
-        TORUS_ACTIVE = false;
+    private void record(TorusMetrics.Stage stage, ChunkPos pos, long start) {
+        if (start != 0) {
+            TorusMetrics.record(stage, pos, torus.isAlias(pos), start);
+        }
+    }
+
+    /** Times an async stage from the call until its future completes. */
+    private CompletableFuture<ChunkAccess> timed(TorusMetrics.Stage stage, ChunkAccess chunkAccess, long start,
+                                                 CompletableFuture<ChunkAccess> future) {
+        if (start == 0) {
+            return future;
+        }
+        return future.whenComplete((chunk, error) -> record(stage, chunkAccess, start));
     }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+package base.worldsize;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@code /torus} admin command.
+ *
+ * All subcommands act on the dimension the command source is in, except
+ * {@code /torus metrics}, which reports worldgen timing across all torus
+ * dimensions.
+ */
+public final class TorusCommands {
+
+    private TorusCommands() {
+    }
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("torus")
+                .requires(Commands.hasPermission(Commands.LEVEL_GAMEMASTERS))
+                .then(Commands.literal("pregen")
+                        .then(Commands.literal("start")
+                                .executes(ctx -> startPregen(ctx, WorldSizeConfig.PREGEN_PARALLELISM))
+                                .then(Commands.argument("parallelism", IntegerArgumentType.integer(1, 1024))
+                                        .executes(ctx -> startPregen(ctx, IntegerArgumentType.getInteger(ctx, "parallelism")))))
+                        .then(Commands.literal("stop")
+                                .executes(TorusCommands::stopPregen))
+                        .then(Commands.literal("status")
+                                .executes(TorusCommands::pregenStatus)))
+                .then(Commands.literal("store")
+                        .then(Commands.literal("snapshot")
+                                .executes(TorusCommands::snapshotStore)))
+                .then(Commands.literal("verify")
+                        .executes(ctx -> startVerify(ctx, WorldSizeConfig.HARNESS_RADIUS, WorldSizeConfig.HARNESS_LAPS))
+                        .then(Commands.argument("radius", IntegerArgumentType.integer(0, 64))
+                                .executes(ctx -> startVerify(ctx, IntegerArgumentType.getInteger(ctx, "radius"),
+                                        WorldSizeConfig.HARNESS_LAPS))
+                                .then(Commands.argument("laps", IntegerArgumentType.integer(-100_000, 100_000))
+                                        .executes(ctx -> startVerify(ctx, IntegerArgumentType.getInteger(ctx, "radius"),
+                                                IntegerArgumentType.getInteger(ctx, "laps"))))))
+                .then(Commands.literal("map")
+                        .executes(ctx -> startMap(ctx, WorldSizeConfig.MAP_BLOCKS_PER_PIXEL))
+                        .then(Commands.argument("blocksPerPixel", IntegerArgumentType.integer(1, 64))
+                                .executes(ctx -> startMap(ctx, IntegerArgumentType.getInteger(ctx, "blocksPerPixel")))))
+                .then(Commands.literal("mirror")
+                        .executes(TorusCommands::mirrorStatus))
+                .then(Commands.literal("metrics")
+                        .executes(TorusCommands::showMetrics)
+                        .then(Commands.literal("reset")
+                                .executes(TorusCommands::resetMetrics))));
+    }
+
+    // =========================================================================
+    // /torus pregen
+    // =========================================================================
+
+    private static int startPregen(CommandContext<CommandSourceStack> ctx, int parallelism) {
+        ServerLevel level = ctx.getSource().getLevel();
+        TorusPregenerator pregen = TorusPregenerator.start(level, parallelism);
+        if (pregen == null) {
+            ctx.getSource().sendFailure(Component.literal("This dimension is not a torus world"));
+            return 0;
+        }
+        ctx.getSource().sendSuccess(() -> Component.literal("Pregenerating " + pregen.total()
+                + " canonical chunks: " + pregen.describe()), true);
+        return 1;
+    }
+
+    private static int stopPregen(CommandContext<CommandSourceStack> ctx) {
+        if (!TorusPregenerator.stop(ctx.getSource().getLevel())) {
+            ctx.getSource().sendFailure(Component.literal("No pregeneration is running in this dimension"));
+            return 0;
+        }
+        ctx.getSource().sendSuccess(() -> Component.literal("Pregeneration stopped; progress is kept"), true);
+        return 1;
+    }
+
+    private static int pregenStatus(CommandContext<CommandSourceStack> ctx) {
+        TorusPregenerator pregen = TorusPregenerator.get(ctx.getSource().getLevel());
+        if (pregen == null) {
+            ctx.getSource().sendFailure(Component.literal("No pregeneration is running in this dimension"));
+            return 0;
+        }
+        ctx.getSource().sendSuccess(() -> Component.literal(pregen.describe()), false);
+        return 1;
+    }
+
+    // =========================================================================
+    // /torus store
+    // =========================================================================
+
+    private static int snapshotStore(CommandContext<CommandSourceStack> ctx) {
+        CanonicalChunkStore store = CanonicalChunkStore.get(ctx.getSource().getLevel().dimension());
+        if (store == null) {
+            ctx.getSource().sendFailure(Component.literal("No canonical chunk store is open for this dimension"));
+            return 0;
+        }
+        try {
+            Path snapshot = store.snapshot();
+            ctx.getSource().sendSuccess(() -> Component.literal("Canonical store snapshot written to " + snapshot), true);
+            return 1;
+        } catch (IOException e) {
+            WorldSize.LOGGER.error("[WorldSize] Canonical store snapshot failed", e);
+            ctx.getSource().sendFailure(Component.literal("Snapshot failed: " + e.getMessage()));
+            return 0;
+        }
+    }
+
+    // =========================================================================
+    // /torus verify
+    // =========================================================================
+
+    private static int startVerify(CommandContext<CommandSourceStack> ctx, int radius, int laps) {
+        ServerLevel level = ctx.getSource().getLevel();
+        if (TorusHarness.get(level) != null) {
+            ctx.getSource().sendFailure(Component.literal("A verification run is already in progress in this dimension"));
+            return 0;
+        }
+        TorusHarness harness = TorusHarness.start(level, radius, laps, WorldSizeConfig.PREGEN_PARALLELISM, false);
+        if (harness == null) {
+            ctx.getSource().sendFailure(Component.literal("This dimension is not a torus world"));
+            return 0;
+        }
+        ctx.getSource().sendSuccess(() -> Component.literal("Verifying aliases " + laps + " laps out (radius " + radius
+                + "); the result is logged and written to worldsize_harness.txt"), true);
+        return 1;
+    }
+
+    // =========================================================================
+    // /torus map
+    // =========================================================================
+
+    private static int startMap(CommandContext<CommandSourceStack> ctx, int blocksPerPixel) {
+        ServerLevel level = ctx.getSource().getLevel();
+        if (TorusContext.of(level) == null) {
+            ctx.getSource().sendFailure(Component.literal("This dimension is not a torus world"));
+            return 0;
+        }
+        if (TorusMapExport.isRunning(level)) {
+            ctx.getSource().sendFailure(Component.literal("A map export is already running in this dimension"));
+            return 0;
+        }
+        CompletableFuture<TorusMapExport.Result> export =
+                TorusMapExport.start(level, blocksPerPixel, WorldSizeConfig.PREGEN_PARALLELISM);
+        ctx.getSource().sendSuccess(() -> Component.literal("Rendering the map at " + blocksPerPixel
+                + " blocks per pixel"), true);
+        export.whenComplete((result, error) -> level.getServer().execute(() -> {
+            if (error != null) {
+                ctx.getSource().sendFailure(Component.literal("Map export failed: " + error.getMessage()));
+            } else {
+                ctx.getSource().sendSuccess(() -> Component.literal("Map exported: " + result.describe()), true);
+            }
+        }));
+        return 1;
+    }
+
+    // =========================================================================
+    // /torus mirror
+    // =========================================================================
+
+    private static int mirrorStatus(CommandContext<CommandSourceStack> ctx) {
+        if (!WorldSizeConfig.MIRROR_EDITS) {
+            ctx.getSource().sendFailure(Component.literal("Edit mirroring is off (enable with -Dworldsize.mirrorEdits=true)"));
+            return 0;
+        }
+        ServerLevel level = ctx.getSource().getLevel();
+        if (TorusContext.of(level) == null) {
+            ctx.getSource().sendFailure(Component.literal("This dimension is not a torus world"));
+            return 0;
+        }
+        ctx.getSource().sendSuccess(() -> Component.literal(EditMirror.describe(level)), false);
+        return 1;
+    }
+
+    // =========================================================================
+    // /torus metrics
+    // =========================================================================
+
+    private static int showMetrics(CommandContext<CommandSourceStack> ctx) {
+        if (!WorldSizeConfig.METRICS) {
+            ctx.getSource().sendFailure(Component.literal("Worldgen metrics are disabled (-Dworldsize.metrics=false)"));
+            return 0;
+        }
+        String stages = TorusMetrics.describeStages();
+        ctx.getSource().sendSuccess(() -> Component.literal(stages), false);
+        ctx.getSource().sendSuccess(() -> Component.literal(TorusMetrics.describeWraps()), false);
+        ctx.getSource().sendSuccess(() -> Component.literal(TorusGenerationExecutor.describe()), false);
+        return 1;
+    }
+
+    private static int resetMetrics(CommandContext<CommandSourceStack> ctx) {
+        TorusMetrics.reset();
+        ctx.getSource().sendSuccess(() -> Component.literal("Worldgen metrics reset"), true);
+        return 1;
+    }
+}
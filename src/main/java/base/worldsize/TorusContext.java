@@ -0,0 +1,258 @@
+package base.worldsize;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable size and wrap rules of ONE torus dimension.
+ *
+ * Replaces the old global "torus active" volatile flag. Each TorusChunkGenerator
+ * owns a context and hands it to everything that wraps coordinates on its
+ * behalf — its delegate generator, its biome source, every chunk it
+ * generates and its ServerLevel (see {@link TorusContextHolder}). Worldgen
+ * objects created from those (NoiseChunk, SurfaceRules.Context,
+ * FeaturePlaceContext) capture the context once into a final or plain field.
+ *
+ * A null context means "not a torus": vanilla dimensions next to a torus
+ * overworld stay infinite.
+ *
+ * SIZE:
+ * X and Z sizes are independent (set per preset via the generator codec).
+ * Each axis of each coordinate space (blocks, quarts, chunks) gets its own
+ * {@link Axis}, picked once here: a bitmask for power-of-two sizes, a
+ * branch-free remainder fix-up otherwise. Wrapping never calls floorMod.
+ */
+public final class TorusContext {
+
+    /** Upper bound for either axis, in chunks (32768 blocks). */
+    public static final int MAX_SIZE_CHUNKS = 2048;
+
+    public static final TorusContext DEFAULT = new TorusContext(WorldSize.WORLD_SIZE_CHUNKS, WorldSize.WORLD_SIZE_CHUNKS);
+
+    private final int sizeChunksX;
+    private final int sizeChunksZ;
+
+    private final Axis blockX;
+    private final Axis blockZ;
+    private final Axis quartX;
+    private final Axis quartZ;
+    private final Axis chunkX;
+    private final Axis chunkZ;
+
+    /** Shared ChunkPos instances of the canonical chunks, created on first use. */
+    private final AtomicReferenceArray<ChunkPos> canonicalPositions;
+
+    public TorusContext(int sizeChunksX, int sizeChunksZ) {
+        if (sizeChunksX < 1 || sizeChunksX > MAX_SIZE_CHUNKS || sizeChunksZ < 1 || sizeChunksZ > MAX_SIZE_CHUNKS) {
+            throw new IllegalArgumentException("Torus size must be 1.." + MAX_SIZE_CHUNKS + " chunks per axis, got "
+                    + sizeChunksX + "x" + sizeChunksZ);
+        }
+        this.sizeChunksX = sizeChunksX;
+        this.sizeChunksZ = sizeChunksZ;
+        this.blockX = Axis.of(sizeChunksX * 16);
+        this.blockZ = Axis.of(sizeChunksZ * 16);
+        this.quartX = Axis.of(sizeChunksX * 4);
+        this.quartZ = Axis.of(sizeChunksZ * 4);
+        this.chunkX = Axis.of(sizeChunksX);
+        this.chunkZ = Axis.of(sizeChunksZ);
+        this.canonicalPositions = new AtomicReferenceArray<>(sizeChunksX * sizeChunksZ);
+    }
+
+    /**
+     * The torus context of a level, or null if the level does not wrap.
+     */
+    public static TorusContext of(Level level) {
+        return level instanceof TorusContextHolder holder ? holder.worldsize$torus() : null;
+    }
+
+    // =========================================================================
+    // Sizes
+    // =========================================================================
+
+    public int sizeChunksX() {
+        return this.sizeChunksX;
+    }
+
+    public int sizeChunksZ() {
+        return this.sizeChunksZ;
+    }
+
+    public int sizeBlocksX() {
+        return this.blockX.size;
+    }
+
+    public int sizeBlocksZ() {
+        return this.blockZ.size;
+    }
+
+    /** Number of canonical chunks. */
+    public int chunkCount() {
+        return this.sizeChunksX * this.sizeChunksZ;
+    }
+
+    /**
+     * Row-major index of a WRAPPED chunk position in [0, chunkCount()) —
+     * the layout shared by every per-chunk table (caches, atlas, store, pregen).
+     */
+    public int chunkIndex(int wrappedChunkX, int wrappedChunkZ) {
+        return wrappedChunkZ * this.sizeChunksX + wrappedChunkX;
+    }
+
+    // =========================================================================
+    // Wrapping
+    // =========================================================================
+
+    public int wrapBlockX(int x) {
+        return this.blockX.wrap(x);
+    }
+
+    public int wrapBlockZ(int z) {
+        return this.blockZ.wrap(z);
+    }
+
+    public int wrapQuartX(int quartX) {
+        return this.quartX.wrap(quartX);
+    }
+
+    public int wrapQuartZ(int quartZ) {
+        return this.quartZ.wrap(quartZ);
+    }
+
+    public int wrapChunkX(int chunkX) {
+        return this.chunkX.wrap(chunkX);
+    }
+
+    public int wrapChunkZ(int chunkZ) {
+        return this.chunkZ.wrap(chunkZ);
+    }
+
+    /** Wraps an entity X position into [0, sizeBlocksX). */
+    public double wrapCoordinateX(double x) {
+        return this.blockX.wrap(x);
+    }
+
+    /** Wraps an entity Z position into [0, sizeBlocksZ). */
+    public double wrapCoordinateZ(double z) {
+        return this.blockZ.wrap(z);
+    }
+
+    /** The shortest signed X offset (in blocks) equivalent to delta, in [-sizeBlocksX/2, sizeBlocksX/2]. */
+    public int shortestBlockDeltaX(int delta) {
+        return this.blockX.shortest(delta);
+    }
+
+    public int shortestBlockDeltaZ(int delta) {
+        return this.blockZ.shortest(delta);
+    }
+
+    /** The shortest signed X offset (in chunks) equivalent to delta — the way round the torus. */
+    public int shortestChunkDeltaX(int delta) {
+        return this.chunkX.shortest(delta);
+    }
+
+    public int shortestChunkDeltaZ(int delta) {
+        return this.chunkZ.shortest(delta);
+    }
+
+    /** True if a chunk lies outside the canonical rectangle. */
+    public boolean isAlias(ChunkPos pos) {
+        return !this.chunkX.contains(pos.x) || !this.chunkZ.contains(pos.z);
+    }
+
+    /** True if a block-space position lies outside the canonical rectangle. */
+    public boolean isOutside(double x, double z) {
+        return x < 0 || x >= this.blockX.size || z < 0 || z >= this.blockZ.size;
+    }
+
+    /**
+     * The wrapped position of a chunk, without allocating: canonical chunks
+     * return themselves, aliases get the shared ChunkPos of their wrap class.
+     */
+    public ChunkPos canonicalPos(ChunkPos pos) {
+        int x = wrapChunkX(pos.x);
+        int z = wrapChunkZ(pos.z);
+        if (x == pos.x && z == pos.z) {
+            return pos;
+        }
+        int index = chunkIndex(x, z);
+        ChunkPos canonical = this.canonicalPositions.get(index);
+        if (canonical == null) {
+            // Racing threads may each create one; any of them is equal
+            canonical = new ChunkPos(x, z);
+            this.canonicalPositions.lazySet(index, canonical);
+        }
+        return canonical;
+    }
+
+    /** Packed WRAPPED chunk position — the key of a chunk's wrap class. */
+    public long canonicalKey(ChunkPos pos) {
+        return ChunkPos.asLong(wrapChunkX(pos.x), wrapChunkZ(pos.z));
+    }
+
+    @Override
+    public String toString() {
+        return this.blockX.size + "x" + this.blockZ.size + " blocks (" + this.sizeChunksX + "x" + this.sizeChunksZ + " chunks)";
+    }
+
+    /**
+     * Wrap arithmetic for one axis of one coordinate space. Only two final
+     * implementations exist, so call sites stay at most bimorphic.
+     */
+    private abstract static sealed class Axis permits PowerOfTwoAxis, ModuloAxis {
+        final int size;
+
+        Axis(int size) {
+            this.size = size;
+        }
+
+        static Axis of(int size) {
+            return Integer.bitCount(size) == 1 ? new PowerOfTwoAxis(size) : new ModuloAxis(size);
+        }
+
+        abstract int wrap(int coord);
+
+        final double wrap(double coord) {
+            double wrapped = coord % this.size;
+            return wrapped < 0 ? wrapped + this.size : wrapped;
+        }
+
+        /** Wrapped into [0, size), then into the half-open range around zero. */
+        final int shortest(int delta) {
+            int wrapped = wrap(delta);
+            return wrapped >= (this.size + 1) / 2 ? wrapped - this.size : wrapped;
+        }
+
+        final boolean contains(int coord) {
+            return Integer.compareUnsigned(coord, this.size) < 0;
+        }
+    }
+
+    private static final class PowerOfTwoAxis extends Axis {
+        private final int mask;
+
+        PowerOfTwoAxis(int size) {
+            super(size);
+            this.mask = size - 1;
+        }
+
+        @Override
+        int wrap(int coord) {
+            return coord & this.mask;
+        }
+    }
+
+    private static final class ModuloAxis extends Axis {
+        ModuloAxis(int size) {
+            super(size);
+        }
+
+        /** Remainder, plus size when it came out negative (sign bit as mask). */
+        @Override
+        int wrap(int coord) {
+            int remainder = coord % this.size;
+            return remainder + (this.size & (remainder >> 31));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package base.worldsize;
+
+/**
+ * Implemented (via mixin) by ChunkGenerator, BiomeSource, ChunkAccess and
+ * ServerLevel to carry the {@link TorusContext} they wrap for.
+ * A null context means the object belongs to a non-torus dimension.
+ */
+public interface TorusContextHolder {
+
+    TorusContext worldsize$torus();
+
+    void worldsize$setTorus(TorusContext torus);
+}
@@ -0,0 +1,231 @@
+package base.worldsize;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dedicated, prioritized pool for the async worldgen stages (createBiomes and
+ * fillFromNoise) of torus dimensions, instead of vanilla's shared background
+ * executor where they compete evenly with everything else.
+ *
+ * Opt-in via -Dworldsize.executor.threads=N. The torus generator's delegate
+ * hands its tasks here (see NoiseBasedChunkGeneratorMixin); dimensions
+ * without a torus keep the vanilla executor.
+ *
+ * PRIORITY:
+ * Tasks run by squared torus distance of their chunk to the nearest player
+ * of the dimension, ties in submission order. Player positions are refreshed
+ * every server tick, and queued tasks are re-ranked against them once a
+ * second, so a player who turns around is not stuck behind chunks ranked for
+ * where they used to be.
+ *
+ * Canonical chunks get no extra rank for having aliases waiting: an alias
+ * only queues a noise task when the template is missing, and that task fills
+ * the alias itself rather than waiting for the canonical chunk.
+ *
+ * Threads are platform threads by default; -Dworldsize.executor.virtual=true
+ * runs tasks on virtual threads instead (still at most N at a time), for
+ * setups where generation blocks on I/O such as a slow canonical store.
+ */
+public final class TorusGenerationExecutor {
+
+    /** Rank when no player is in the dimension. */
+    private static final long PRIORITY_NO_PLAYERS = Long.MAX_VALUE;
+
+    private static volatile ThreadPoolExecutor pool;
+
+    /** Player chunk positions (packed) per torus, refreshed by {@link #tick}. */
+    private static final Map<TorusContext, long[]> PLAYERS = new ConcurrentHashMap<>();
+
+    private static final int RERANK_INTERVAL_TICKS = 20;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final AtomicLong COMPLETED = new AtomicLong();
+
+    private TorusGenerationExecutor() {
+    }
+
+    public static boolean isEnabled() {
+        return WorldSizeConfig.EXECUTOR_THREADS > 0;
+    }
+
+    /**
+     * An executor for the stages of one chunk. Tasks submitted through it are
+     * ranked for that chunk's position.
+     */
+    public static Executor forChunk(TorusContext torus, ChunkPos pos) {
+        return task -> submit(torus, pos, task);
+    }
+
+    private static void submit(TorusContext torus, ChunkPos pos, Runnable task) {
+        pool().execute(new Task(task, torus, pos, SEQUENCE.getAndIncrement()));
+    }
+
+    private static long playerDistanceSq(TorusContext torus, ChunkPos pos) {
+        long[] players = PLAYERS.get(torus);
+        if (players == null || players.length == 0) {
+            return PRIORITY_NO_PLAYERS;
+        }
+        long nearest = PRIORITY_NO_PLAYERS;
+        for (long player : players) {
+            long dx = torus.shortestChunkDeltaX(ChunkPos.getX(player) - pos.x);
+            long dz = torus.shortestChunkDeltaZ(ChunkPos.getZ(player) - pos.z);
+            nearest = Math.min(nearest, dx * dx + dz * dz);
+        }
+        return nearest;
+    }
+
+    private static ThreadPoolExecutor pool() {
+        ThreadPoolExecutor executor = pool;
+        if (executor == null) {
+            synchronized (TorusGenerationExecutor.class) {
+                executor = pool;
+                if (executor == null) {
+                    executor = createPool();
+                    pool = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static ThreadPoolExecutor createPool() {
+        int threads = WorldSizeConfig.EXECUTOR_THREADS;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = WorldSizeConfig.EXECUTOR_VIRTUAL
+                ? Thread.ofVirtual().name("WorldSize-Gen-", 0).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "WorldSize-Gen-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        WorldSize.LOGGER.info("[WorldSize] Torus generation executor started: {} {} threads",
+                threads, WorldSizeConfig.EXECUTOR_VIRTUAL ? "virtual" : "platform");
+        return executor;
+    }
+
+    // =========================================================================
+    // Player positions
+    // =========================================================================
+
+    /** Refresh player positions of every torus dimension and re-rank the queue. Server thread only. */
+    public static void tick(MinecraftServer server) {
+        for (ServerLevel level : server.getAllLevels()) {
+            TorusContext torus = TorusContext.of(level);
+            if (torus == null) {
+                continue;
+            }
+            LongArrayList positions = new LongArrayList(level.players().size());
+            for (ServerPlayer player : level.players()) {
+                positions.add(player.chunkPosition().toLong());
+            }
+            PLAYERS.put(torus, positions.toLongArray());
+        }
+        if (server.getTickCount() % RERANK_INTERVAL_TICKS == 0) {
+            rerank();
+        }
+    }
+
+    /**
+     * A priority queue cannot re-order an element in place, so queued tasks
+     * are drained, ranked against the current player positions and put back.
+     * Workers keep taking from the queue meanwhile; at worst one of them
+     * picks up a task in the old order.
+     */
+    private static void rerank() {
+        ThreadPoolExecutor executor = pool;
+        if (executor == null || executor.getQueue().isEmpty()) {
+            return;
+        }
+        List<Runnable> queued = new ArrayList<>(executor.getQueue().size());
+        executor.getQueue().drainTo(queued);
+        for (Runnable task : queued) {
+            ((Task) task).rank();
+        }
+        executor.getQueue().addAll(queued);
+        // Bypassing execute(): make sure no worker timed out while the queue was drained
+        executor.prestartAllCoreThreads();
+    }
+
+    /** Forget the player positions of a stopped server; the pool itself is reused. */
+    public static void reset() {
+        PLAYERS.clear();
+    }
+
+    // =========================================================================
+    // Metrics
+    // =========================================================================
+
+    public static int queueDepth() {
+        ThreadPoolExecutor executor = pool;
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    public static String describe() {
+        if (!isEnabled()) {
+            return "Generation executor disabled (-Dworldsize.executor.threads=N); using the vanilla worker pool";
+        }
+        ThreadPoolExecutor executor = pool;
+        return String.format(Locale.ROOT, "Generation executor: %d queued, %d/%d active, %d completed",
+                queueDepth(), executor != null ? executor.getActiveCount() : 0,
+                WorldSizeConfig.EXECUTOR_THREADS, COMPLETED.get());
+    }
+
+    /**
+     * A ranked task. Lower priority values run first. The rank only changes
+     * while the task is out of the queue (see {@link #rerank}).
+     */
+    private static final class Task implements Runnable, Comparable<Task> {
+        private final Runnable task;
+        private final TorusContext torus;
+        private final ChunkPos pos;
+        private final long sequence;
+        private long priority;
+
+        Task(Runnable task, TorusContext torus, ChunkPos pos, long sequence) {
+            this.task = task;
+            this.torus = torus;
+            this.pos = pos;
+            this.sequence = sequence;
+            rank();
+        }
+
+        void rank() {
+            this.priority = playerDistanceSq(this.torus, this.pos);
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.task.run();
+            } finally {
+                COMPLETED.incrementAndGet();
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = Long.compare(this.priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package base.worldsize;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Worldgen throughput and seam-correctness check for one torus dimension.
+ *
+ * Every optimization that reuses canonical work for aliases (templates,
+ * caches, skipped stages) is only valid while an alias generates exactly like
+ * its canonical chunk. This generates a square window of chunks several laps
+ * out, plus the canonical chunks they wrap onto, and compares each alias
+ * against its canonical chunk:
+ *
+ * - sections: every block state, by global state id
+ * - heightmaps: the raw data of every heightmap the chunk carries
+ * - biomes: every biome quart, by registry id
+ *
+ * With -Dworldsize.verifyDecoration=true (set by runTorusHarness), aliases are
+ * also decorated for real, and what their features write around them is
+ * compared with the canonical chunk's decoration record; the report counts
+ * the aliases that differ.
+ *
+ * Chunks are requested at FULL status with up to {@code parallelism} futures
+ * in flight (the same scheme as {@link TorusPregenerator}); hashing runs on
+ * the common fork-join pool so the server thread only schedules work.
+ *
+ * Throughput is chunks/sec over the whole run, peak heap is the sum of the
+ * heap pools' peak usage since the run started.
+ *
+ * Started by {@code /torus verify} on a live server, or headless with
+ * {@code ./gradlew runTorusHarness} (fresh world, worldsize:torus preset,
+ * fixed seed): the server then writes {@code worldsize_harness.txt} into the
+ * world folder and shuts down.
+ */
+public final class TorusHarness {
+
+    private static final Map<ResourceKey<Level>, TorusHarness> ACTIVE = new LinkedHashMap<>();
+
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+
+    private record ChunkHash(long sections, long heightmaps, long biomes) {
+    }
+
+    private final ServerLevel level;
+    private final TorusContext torus;
+    private final int parallelism;
+    private final boolean haltWhenDone;
+    private final Registry<Biome> biomes;
+
+    /** Canonical chunks first, then the alias window. */
+    private final List<ChunkPos> queue = new ArrayList<>();
+    private final Map<Long, ChunkHash> canonicalHashes = new ConcurrentHashMap<>();
+    private final Map<ChunkPos, ChunkHash> aliasHashes = new ConcurrentHashMap<>();
+
+    private final int decorationChecksAtStart;
+    private final int decorationMismatchesAtStart;
+
+    private int nextIndex;
+    private int inFlight;
+    private int generated;
+    private int failed;
+    private final long startNanos;
+    private long endNanos;
+    private long lastReportNanos;
+
+    private TorusHarness(ServerLevel level, TorusContext torus, int radius, int laps, int parallelism, boolean haltWhenDone) {
+        this.level = level;
+        this.torus = torus;
+        this.parallelism = parallelism;
+        this.haltWhenDone = haltWhenDone;
+        this.biomes = level.registryAccess().lookupOrThrow(Registries.BIOME);
+
+        // Window centred `laps` full laps out on both axes; its canonical images come first
+        int centreX = laps * torus.sizeChunksX();
+        int centreZ = laps * torus.sizeChunksZ();
+        Map<Long, ChunkPos> canonical = new LinkedHashMap<>();
+        List<ChunkPos> window = new ArrayList<>();
+        for (int z = centreZ - radius; z <= centreZ + radius; z++) {
+            for (int x = centreX - radius; x <= centreX + radius; x++) {
+                ChunkPos pos = new ChunkPos(x, z);
+                ChunkPos wrapped = torus.canonicalPos(pos);
+                canonical.putIfAbsent(ChunkPos.asLong(wrapped.x, wrapped.z), wrapped);
+                if (torus.isAlias(pos)) {
+                    window.add(pos);
+                }
+            }
+        }
+        this.queue.addAll(canonical.values());
+        this.queue.addAll(window);
+
+        if (level.getChunkSource().getGenerator() instanceof TorusChunkGenerator generator) {
+            this.decorationChecksAtStart = generator.decorationChecks();
+            this.decorationMismatchesAtStart = generator.decorationMismatches();
+        } else {
+            this.decorationChecksAtStart = 0;
+            this.decorationMismatchesAtStart = 0;
+        }
+
+        resetPeakHeap();
+        this.startNanos = System.nanoTime();
+        this.lastReportNanos = this.startNanos;
+    }
+
+    // =========================================================================
+    // Lifecycle
+    // =========================================================================
+
+    /**
+     * Start a run in a torus dimension.
+     *
+     * @param radius window radius in chunks
+     * @param laps   how many full laps out the window is centred
+     * @return the running harness, or null if the level is not a torus
+     */
+    public static TorusHarness start(ServerLevel level, int radius, int laps, int parallelism, boolean haltWhenDone) {
+        TorusContext torus = TorusContext.of(level);
+        if (torus == null) {
+            return null;
+        }
+        TorusHarness running = ACTIVE.get(level.dimension());
+        if (running != null) {
+            return running;
+        }
+        TorusHarness harness = new TorusHarness(level, torus, Math.max(0, radius), laps, Math.max(1, parallelism), haltWhenDone);
+        ACTIVE.put(level.dimension(), harness);
+        WorldSize.LOGGER.info("[WorldSize] Harness started in {}: {} chunks, radius {} at {} laps out, parallelism {}",
+                level.dimension().identifier(), harness.queue.size(), radius, laps, harness.parallelism);
+        return harness;
+    }
+
+    public static TorusHarness get(ServerLevel level) {
+        return ACTIVE.get(level.dimension());
+    }
+
+    /**
+     * Headless mode (-Dworldsize.harness=true): run in the overworld once the
+     * server is up, then stop it.
+     */
+    public static void startHeadless(MinecraftServer server) {
+        if (start(server.overworld(), WorldSizeConfig.HARNESS_RADIUS, WorldSizeConfig.HARNESS_LAPS,
+                WorldSizeConfig.PREGEN_PARALLELISM, true) == null) {
+            WorldSize.LOGGER.error("[WorldSize] Harness: the overworld is not a torus (level-type must be worldsize:torus)");
+            server.halt(false);
+        }
+    }
+
+    /** Advance every running harness. Server thread only. */
+    public static void tickAll(MinecraftServer server) {
+        if (ACTIVE.isEmpty()) {
+            return;
+        }
+        ACTIVE.values().removeIf(TorusHarness::tick);
+    }
+
+    // =========================================================================
+    // Per-tick work
+    // =========================================================================
+
+    /**
+     * @return true once every chunk has been generated, hashed and compared
+     */
+    private boolean tick() {
+        while (this.inFlight < this.parallelism && this.nextIndex < this.queue.size()) {
+            request(this.queue.get(this.nextIndex++));
+        }
+
+        long now = System.nanoTime();
+        if (now - this.lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            this.lastReportNanos = now;
+            WorldSize.LOGGER.info("[WorldSize] Harness in {}: {}", this.level.dimension().identifier(), describe());
+        }
+
+        if (this.inFlight > 0 || this.nextIndex < this.queue.size()) {
+            return false;
+        }
+        this.endNanos = now;
+        finish();
+        return true;
+    }
+
+    private void request(ChunkPos pos) {
+        this.inFlight++;
+        this.level.getChunkSource()
+                .getChunkFuture(pos.x, pos.z, ChunkStatus.FULL, true)
+                .thenComposeAsync(result -> {
+                    ChunkAccess chunk = result.orElse(null);
+                    if (chunk == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    this.generated++;
+                    return CompletableFuture.supplyAsync(() -> hash(chunk), ForkJoinPool.commonPool());
+                }, this.level.getServer())
+                .whenCompleteAsync((hash, throwable) -> {
+                    this.inFlight--;
+                    if (throwable != null || hash == null) {
+                        this.failed++;
+                        WorldSize.LOGGER.warn("[WorldSize] Harness could not generate chunk {}", pos, throwable);
+                    } else if (this.torus.isAlias(pos)) {
+                        this.aliasHashes.put(pos, hash);
+                    } else {
+                        this.canonicalHashes.put(ChunkPos.asLong(pos.x, pos.z), hash);
+                    }
+                }, this.level.getServer());
+    }
+
+    // =========================================================================
+    // Hashing
+    // =========================================================================
+
+    private ChunkHash hash(ChunkAccess chunk) {
+        long sections = 1;
+        long biomes = 1;
+        for (LevelChunkSection section : chunk.getSections()) {
+            if (section.hasOnlyAir()) {
+                sections = mix(sections, -1);
+            } else {
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            sections = mix(sections, Block.getId(section.getBlockState(x, y, z)));
+                        }
+                    }
+                }
+            }
+            for (int y = 0; y < 4; y++) {
+                for (int z = 0; z < 4; z++) {
+                    for (int x = 0; x < 4; x++) {
+                        Holder<Biome> biome = section.getNoiseBiome(x, y, z);
+                        biomes = mix(biomes, this.biomes.getId(biome.value()));
+                    }
+                }
+            }
+        }
+
+        long heightmaps = 1;
+        for (Map.Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+            heightmaps = mix(heightmaps, entry.getKey().ordinal());
+            for (long word : entry.getValue().getRawData()) {
+                heightmaps = mix(heightmaps, word);
+            }
+        }
+        return new ChunkHash(sections, heightmaps, biomes);
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    // =========================================================================
+    // Reporting
+    // =========================================================================
+
+    private void finish() {
+        int compared = 0;
+        int sectionMismatches = 0;
+        int heightmapMismatches = 0;
+        int biomeMismatches = 0;
+        List<String> mismatches = new ArrayList<>();
+        for (Map.Entry<ChunkPos, ChunkHash> entry : this.aliasHashes.entrySet()) {
+            ChunkHash canonical = this.canonicalHashes.get(this.torus.canonicalKey(entry.getKey()));
+            if (canonical == null) {
+                continue;
+            }
+            ChunkHash alias = entry.getValue();
+            compared++;
+            boolean sections = alias.sections != canonical.sections;
+            boolean heightmaps = alias.heightmaps != canonical.heightmaps;
+            boolean biomes = alias.biomes != canonical.biomes;
+            sectionMismatches += sections ? 1 : 0;
+            heightmapMismatches += heightmaps ? 1 : 0;
+            biomeMismatches += biomes ? 1 : 0;
+            if (sections || heightmaps || biomes) {
+                mismatches.add(entry.getKey() + " vs " + this.torus.canonicalPos(entry.getKey())
+                        + (sections ? " sections" : "") + (heightmaps ? " heightmaps" : "") + (biomes ? " biomes" : ""));
+            }
+        }
+        int decorationChecks = 0;
+        int decorationMismatches = 0;
+        if (this.level.getChunkSource().getGenerator() instanceof TorusChunkGenerator generator) {
+            decorationChecks = generator.decorationChecks() - this.decorationChecksAtStart;
+            decorationMismatches = generator.decorationMismatches() - this.decorationMismatchesAtStart;
+        }
+        boolean passed = mismatches.isEmpty() && this.failed == 0 && decorationMismatches == 0;
+
+        List<String> report = new ArrayList<>();
+        report.add("Torus harness " + (passed ? "PASSED" : "FAILED") + " in " + this.level.dimension().identifier()
+                + " (" + this.torus + ")");
+        report.add(describe());
+        report.add(String.format(Locale.ROOT, "%d aliases compared: %d section, %d heightmap, %d biome mismatches",
+                compared, sectionMismatches, heightmapMismatches, biomeMismatches));
+        report.add(WorldSizeConfig.VERIFY_DECORATION
+                ? String.format(Locale.ROOT, "%d alias decorations checked against their canonical record: %d mismatches",
+                        decorationChecks, decorationMismatches)
+                : "alias decorations not checked (-Dworldsize.verifyDecoration=false)");
+        report.addAll(mismatches);
+
+        for (String line : report.subList(0, 4)) {
+            WorldSize.LOGGER.info("[WorldSize] {}", line);
+        }
+        if (!mismatches.isEmpty()) {
+            WorldSize.LOGGER.warn("[WorldSize] Harness mismatches (first {}): {}",
+                    Math.min(16, mismatches.size()), mismatches.subList(0, Math.min(16, mismatches.size())));
+        }
+
+        Path file = this.level.getServer().getWorldPath(LevelResource.ROOT).resolve("worldsize_harness.txt");
+        try {
+            Files.write(file, report);
+        } catch (IOException e) {
+            WorldSize.LOGGER.warn("[WorldSize] Could not write harness report {}", file, e);
+        }
+
+        if (this.haltWhenDone) {
+            this.level.getServer().halt(false);
+        }
+    }
+
+    public double chunksPerSecond() {
+        long end = this.endNanos != 0 ? this.endNanos : System.nanoTime();
+        double seconds = (end - this.startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? this.generated / seconds : 0;
+    }
+
+    public String describe() {
+        return String.format(Locale.ROOT, "%d/%d chunks, %d failed, %.1f chunks/sec, peak heap %d MiB",
+                this.generated, this.queue.size(), this.failed, chunksPerSecond(), peakHeapBytes() >> 20);
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,283 @@
+package base.worldsize;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.QuartPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.biome.Climate;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.storage.LevelResource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Top-down biome and height map of a whole torus dimension, rendered from
+ * the generator alone — no chunk is loaded or generated.
+ *
+ * The canonical rectangle is the entire world, so one pass over its columns
+ * at {@code blocksPerPixel} covers everything. Each pixel samples the
+ * generator's base height (WORLD_SURFACE_WG) and the biome at that height
+ * (served by the biome atlas). Heights bypass the base column cache: an
+ * export samples each column once, and at fine scales caching them would
+ * fill a height table for every chunk of the world.
+ *
+ * OUTPUT ({@code worldsize_map_<dimension>/} in the world folder):
+ * - {@code biome/<x>_<z>.png}: RGB, one color per biome;
+ * - {@code height/<x>_<z>.png}: 8-bit gray, min build height black, max white;
+ * - {@code map.txt}: size, scale, tile grid, height range and the biome legend.
+ * Tiles are {@value #TILE_PIXELS} pixels square, indexed from the north-west
+ * corner of the canonical rectangle.
+ *
+ * The tile grid is split in halves on a dedicated fork-join pool until each
+ * task holds one tile; a tile is written as soon as it is rendered, so at most
+ * one tile per thread is in memory.
+ *
+ * Started by {@code /torus map} on a live server, or headless with
+ * {@code ./gradlew runTorusMap}, which renders the overworld and shuts down.
+ */
+public final class TorusMapExport {
+
+    public static final int TILE_PIXELS = 256;
+
+    public record Result(Path directory, int tiles, int widthPixels, int heightPixels, long nanos) {
+        public String describe() {
+            return String.format(Locale.ROOT, "%d tiles (%d×%d px) in %.1f s, written to %s",
+                    this.tiles, this.widthPixels, this.heightPixels, this.nanos / 1.0e9, this.directory);
+        }
+    }
+
+    private static final Set<ResourceKey<Level>> RUNNING = ConcurrentHashMap.newKeySet();
+
+    private final ServerLevel level;
+    private final TorusChunkGenerator generator;
+    private final BiomeSource biomeSource;
+    private final RandomState randomState;
+    private final Climate.Sampler sampler;
+    private final int blocksPerPixel;
+    private final int widthPixels;
+    private final int heightPixels;
+    private final int tilesX;
+    private final int tilesZ;
+    private final Path directory;
+    private final Map<Holder<Biome>, Integer> colors = new ConcurrentHashMap<>();
+
+    private TorusMapExport(ServerLevel level, TorusChunkGenerator generator, int blocksPerPixel, Path directory) {
+        TorusContext torus = generator.torus();
+        this.level = level;
+        this.generator = generator;
+        this.biomeSource = generator.getBiomeSource();
+        this.randomState = level.getChunkSource().randomState();
+        this.sampler = this.randomState.sampler();
+        this.blocksPerPixel = blocksPerPixel;
+        this.widthPixels = Mth.positiveCeilDiv(torus.sizeBlocksX(), blocksPerPixel);
+        this.heightPixels = Mth.positiveCeilDiv(torus.sizeBlocksZ(), blocksPerPixel);
+        this.tilesX = Mth.positiveCeilDiv(this.widthPixels, TILE_PIXELS);
+        this.tilesZ = Mth.positiveCeilDiv(this.heightPixels, TILE_PIXELS);
+        this.directory = directory;
+    }
+
+    // =========================================================================
+    // Lifecycle
+    // =========================================================================
+
+    /**
+     * Render a dimension in the background.
+     *
+     * @return the finished export, or null if the level is not a torus
+     * @throws IllegalStateException if the level is already being exported
+     *         (see {@link #isRunning})
+     */
+    public static CompletableFuture<Result> start(ServerLevel level, int blocksPerPixel, int parallelism) {
+        if (!(level.getChunkSource().getGenerator() instanceof TorusChunkGenerator generator)) {
+            return null;
+        }
+        if (!RUNNING.add(level.dimension())) {
+            throw new IllegalStateException("A map export of " + level.dimension().identifier() + " is already running");
+        }
+        String dimension = level.dimension().identifier().toString().replace(':', '_').replace('/', '_');
+        Path directory = level.getServer().getWorldPath(LevelResource.ROOT).resolve("worldsize_map_" + dimension);
+        TorusMapExport export = new TorusMapExport(level, generator, Math.max(1, blocksPerPixel), directory);
+        WorldSize.LOGGER.info("[WorldSize] Map export of {} started: {}×{} px at {} blocks per pixel, parallelism {}",
+                level.dimension().identifier(), export.widthPixels, export.heightPixels, export.blocksPerPixel, parallelism);
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        return CompletableFuture.supplyAsync(export::run, pool).whenComplete((result, error) -> {
+            pool.shutdown();
+            RUNNING.remove(level.dimension());
+            if (error != null) {
+                WorldSize.LOGGER.error("[WorldSize] Map export of {} failed", level.dimension().identifier(), error);
+            } else {
+                WorldSize.LOGGER.info("[WorldSize] Map export of {}: {}", level.dimension().identifier(), result.describe());
+            }
+        });
+    }
+
+    public static boolean isRunning(ServerLevel level) {
+        return RUNNING.contains(level.dimension());
+    }
+
+    /**
+     * Headless mode (-Dworldsize.map=true): render the overworld once the
+     * server is up, then stop it.
+     */
+    public static void startHeadless(MinecraftServer server) {
+        if (isRunning(server.overworld())) {
+            WorldSize.LOGGER.error("[WorldSize] Map export: an export of the overworld is already running");
+            server.halt(false);
+            return;
+        }
+        CompletableFuture<Result> export = start(server.overworld(), WorldSizeConfig.MAP_BLOCKS_PER_PIXEL,
+                WorldSizeConfig.PREGEN_PARALLELISM);
+        if (export == null) {
+            WorldSize.LOGGER.error("[WorldSize] Map export: the overworld is not a torus (level-type must be worldsize:torus)");
+            server.halt(false);
+            return;
+        }
+        export.whenComplete((result, error) -> server.execute(() -> server.halt(false)));
+    }
+
+    private Result run() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(this.directory.resolve("biome"));
+            Files.createDirectories(this.directory.resolve("height"));
+            deleteTiles(this.directory.resolve("biome"));
+            deleteTiles(this.directory.resolve("height"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        new TileRange(0, this.tilesX * this.tilesZ).invoke();
+        writeIndex();
+        return new Result(this.directory, this.tilesX * this.tilesZ, this.widthPixels, this.heightPixels,
+                System.nanoTime() - start);
+    }
+
+    /** Tiles of an earlier export at another scale would not line up with this one. */
+    private static void deleteTiles(Path directory) throws IOException {
+        try (DirectoryStream<Path> tiles = Files.newDirectoryStream(directory, "*.png")) {
+            for (Path tile : tiles) {
+                Files.delete(tile);
+            }
+        }
+    }
+
+    // =========================================================================
+    // Tiles
+    // =========================================================================
+
+    /** A run of tile indices, split in halves until a single tile remains. */
+    private final class TileRange extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        TileRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                renderTile(this.from % TorusMapExport.this.tilesX, this.from / TorusMapExport.this.tilesX);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new TileRange(this.from, middle), new TileRange(middle, this.to));
+        }
+    }
+
+    private void renderTile(int tileX, int tileZ) {
+        int originX = tileX * TILE_PIXELS;
+        int originZ = tileZ * TILE_PIXELS;
+        int width = Math.min(TILE_PIXELS, this.widthPixels - originX);
+        int height = Math.min(TILE_PIXELS, this.heightPixels - originZ);
+        BufferedImage biomeImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        BufferedImage heightImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+
+        int minY = this.level.getMinY();
+        int range = Math.max(1, this.level.getHeight());
+        for (int z = 0; z < height; z++) {
+            int blockZ = (originZ + z) * this.blocksPerPixel;
+            for (int x = 0; x < width; x++) {
+                int blockX = (originX + x) * this.blocksPerPixel;
+                int surface = this.generator.sampleBaseHeight(blockX, blockZ, Heightmap.Types.WORLD_SURFACE_WG,
+                        this.level, this.randomState);
+                Holder<Biome> biome = this.biomeSource.getNoiseBiome(QuartPos.fromBlock(blockX),
+                        QuartPos.fromBlock(surface), QuartPos.fromBlock(blockZ), this.sampler);
+                biomeImage.setRGB(x, z, this.colors.computeIfAbsent(biome, TorusMapExport::colorOf));
+                heightImage.getRaster().setSample(x, z, 0, Mth.clamp((surface - minY) * 255 / range, 0, 255));
+            }
+        }
+
+        String name = tileX + "_" + tileZ + ".png";
+        try {
+            ImageIO.write(biomeImage, "png", this.directory.resolve("biome").resolve(name).toFile());
+            ImageIO.write(heightImage, "png", this.directory.resolve("height").resolve(name).toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A stable color per biome, derived from its id so it is the same in every export. */
+    private static int colorOf(Holder<Biome> biome) {
+        int hash = biomeId(biome).hashCode();
+        float hue = (hash & 0xFFFF) / 65536.0F;
+        float saturation = 0.45F + ((hash >>> 16) & 0xFF) / 255.0F * 0.4F;
+        float value = 0.6F + ((hash >>> 24) & 0x7F) / 127.0F * 0.35F;
+        return Mth.hsvToRgb(hue, saturation, value);
+    }
+
+    private static String biomeId(Holder<Biome> biome) {
+        return biome.unwrapKey().map(key -> key.identifier().toString()).orElse("unknown");
+    }
+
+    // =========================================================================
+    // Index
+    // =========================================================================
+
+    private void writeIndex() {
+        TorusContext torus = this.generator.torus();
+        List<String> lines = new ArrayList<>();
+        lines.add("dimension=" + this.level.dimension().identifier());
+        lines.add("size_blocks=" + torus.sizeBlocksX() + "x" + torus.sizeBlocksZ());
+        lines.add("blocks_per_pixel=" + this.blocksPerPixel);
+        lines.add("pixels=" + this.widthPixels + "x" + this.heightPixels);
+        lines.add("tile_pixels=" + TILE_PIXELS);
+        lines.add("tiles=" + this.tilesX + "x" + this.tilesZ);
+        lines.add("height_range=" + this.level.getMinY() + ".." + (this.level.getMinY() + this.level.getHeight()));
+        lines.add("sea_level=" + this.generator.getSeaLevel());
+
+        Map<String, Integer> legend = new TreeMap<>();
+        this.colors.forEach((biome, color) -> legend.put(biomeId(biome), color));
+        legend.forEach((id, color) -> lines.add(String.format(Locale.ROOT, "biome #%06x %s", color & 0xFFFFFF, id)));
+
+        try {
+            Files.write(this.directory.resolve("map.txt"), lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
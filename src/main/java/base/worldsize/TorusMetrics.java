@@ -0,0 +1,185 @@
+package base.worldsize;
+
+import jdk.jfr.EventType;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Worldgen timing and wrap counters for torus dimensions.
+ *
+ * STAGES:
+ * Every TorusChunkGenerator stage is timed into a {@link LatencyHistogram},
+ * split by canonical versus alias chunk, and optionally emitted as a
+ * {@link ChunkStageEvent} when a JFR recording has the event enabled.
+ *
+ * WRAPS:
+ * With -Dworldsize.metrics.wrapCounters=true each mixin counts the
+ * coordinates it wraps in a striped LongAdder.
+ *
+ * REPORTING:
+ * {@code /torus metrics} prints p50/p99 per stage and chunks/sec (plus the
+ * queue depth of the {@link TorusGenerationExecutor}); the same summary is
+ * logged every -Dworldsize.metrics.logIntervalSeconds.
+ */
+public final class TorusMetrics {
+
+    public enum Stage {
+        CREATE_BIOMES("createBiomes"),
+        FILL_FROM_NOISE("fillFromNoise"),
+        BUILD_SURFACE("buildSurface"),
+        APPLY_CARVERS("applyCarvers"),
+        APPLY_BIOME_DECORATION("applyBiomeDecoration"),
+        SPAWN_ORIGINAL_MOBS("spawnOriginalMobs");
+
+        final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    public enum WrapSite {
+        NOISE_CHUNK("noiseChunk"),
+        SURFACE_COLUMN("surfaceColumn"),
+        FEATURE_ORIGIN("featureOrigin"),
+        BIOME_QUART("biomeQuart"),
+        ENTITY_SEAM("entitySeam");
+
+        final String label;
+
+        WrapSite(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final EventType STAGE_EVENT = EventType.getEventType(ChunkStageEvent.class);
+
+    /** [stage][0 = canonical, 1 = alias] */
+    private static final LatencyHistogram[][] STAGES = new LatencyHistogram[Stage.values().length][2];
+    private static final Map<WrapSite, LongAdder> WRAPS = new EnumMap<>(WrapSite.class);
+
+    static {
+        for (LatencyHistogram[] split : STAGES) {
+            split[0] = new LatencyHistogram();
+            split[1] = new LatencyHistogram();
+        }
+        for (WrapSite site : WrapSite.values()) {
+            WRAPS.put(site, new LongAdder());
+        }
+    }
+
+    private static volatile long sinceNanos = System.nanoTime();
+    private static long lastLogNanos = sinceNanos;
+
+    private TorusMetrics() {
+    }
+
+    // =========================================================================
+    // Recording
+    // =========================================================================
+
+    /** Start time for {@link #record}, or 0 when stage timing is disabled. */
+    public static long start() {
+        return WorldSizeConfig.METRICS ? System.nanoTime() : 0;
+    }
+
+    public static void record(Stage stage, ChunkPos pos, boolean alias, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        STAGES[stage.ordinal()][alias ? 1 : 0].record(elapsed);
+
+        if (STAGE_EVENT.isEnabled()) {
+            ChunkStageEvent event = new ChunkStageEvent();
+            if (event.shouldCommit()) {
+                event.stage = stage.label;
+                event.chunkX = pos.x;
+                event.chunkZ = pos.z;
+                event.alias = alias;
+                event.stageTime = elapsed;
+                event.commit();
+            }
+        }
+    }
+
+    public static void countWrap(WrapSite site) {
+        WRAPS.get(site).increment();
+    }
+
+    public static void reset() {
+        for (LatencyHistogram[] split : STAGES) {
+            split[0].reset();
+            split[1].reset();
+        }
+        WRAPS.values().forEach(LongAdder::reset);
+        sinceNanos = System.nanoTime();
+    }
+
+    // =========================================================================
+    // Reporting
+    // =========================================================================
+
+    /** Chunks whose noise fill completed per second since start or reset. */
+    public static double chunksPerSecond() {
+        long chunks = STAGES[Stage.FILL_FROM_NOISE.ordinal()][0].count()
+                + STAGES[Stage.FILL_FROM_NOISE.ordinal()][1].count();
+        double seconds = (System.nanoTime() - sinceNanos) / 1_000_000_000.0;
+        return seconds > 0 ? chunks / seconds : 0;
+    }
+
+    /** One line per stage: p50/p99 for canonical and alias chunks. */
+    public static String describeStages() {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%.1f chunks/sec", chunksPerSecond()));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram canonical = STAGES[stage.ordinal()][0];
+            LatencyHistogram alias = STAGES[stage.ordinal()][1];
+            if (canonical.count() == 0 && alias.count() == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%n%s: canonical %s | alias %s",
+                    stage.label, describe(canonical), describe(alias)));
+        }
+        return out.toString();
+    }
+
+    public static String describeWraps() {
+        if (!WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+            return "Wrap counters disabled (-Dworldsize.metrics.wrapCounters=true)";
+        }
+        StringBuilder out = new StringBuilder("Wraps:");
+        WRAPS.forEach((site, count) -> out.append(' ').append(site.label).append('=').append(count.sum()));
+        return out.toString();
+    }
+
+    private static String describe(LatencyHistogram histogram) {
+        if (histogram.count() == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "n=%d p50=%.2fms p99=%.2fms",
+                histogram.count(), histogram.percentileMicros(50) / 1000.0, histogram.percentileMicros(99) / 1000.0);
+    }
+
+    /** Periodic log line. Server thread only. */
+    public static void tick(MinecraftServer server) {
+        if (!WorldSizeConfig.METRICS || WorldSizeConfig.METRICS_LOG_INTERVAL_SECONDS == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastLogNanos < WorldSizeConfig.METRICS_LOG_INTERVAL_SECONDS * 1_000_000_000L) {
+            return;
+        }
+        lastLogNanos = now;
+        if (STAGES[Stage.FILL_FROM_NOISE.ordinal()][0].count() + STAGES[Stage.FILL_FROM_NOISE.ordinal()][1].count() > 0) {
+            WorldSize.LOGGER.info("[WorldSize] Worldgen metrics: {}", describeStages().replace(System.lineSeparator(), "; "));
+            if (TorusGenerationExecutor.isEnabled()) {
+                WorldSize.LOGGER.info("[WorldSize] {}", TorusGenerationExecutor.describe());
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package base.worldsize;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates every canonical chunk of a torus dimension up front.
+ *
+ * A torus has a fixed, finite set of canonical chunks (sizeChunksX × sizeChunksZ).
+ * Instead of letting the first explorers pay for them as tick lag, this walks
+ * the whole canonical rectangle once and requests each chunk at FULL status.
+ *
+ * HOW IT WORKS:
+ * - Runs on the server thread, driven by {@link #tickAll(MinecraftServer)}.
+ * - Keeps up to {@code parallelism} chunk futures in flight; the actual
+ *   generation runs on the vanilla worldgen workers, so raising parallelism
+ *   spreads the work across more cores.
+ * - Completed chunks are recorded in a BitSet that is flushed to
+ *   {@code worldsize_pregen_<dimension>.bin} in the world folder, so a
+ *   crashed or stopped run resumes where it left off.
+ *
+ * Chunks are only requested, never held — the vanilla ticket expires and
+ * the chunk is saved and unloaded like any other.
+ */
+public final class TorusPregenerator {
+
+    private static final Map<ResourceKey<Level>, TorusPregenerator> ACTIVE = new LinkedHashMap<>();
+
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+
+    /** First byte of the progress file: 1 while a run is in progress, 0 once stopped or finished. */
+    private static final byte STATE_STOPPED = 0;
+    private static final byte STATE_RUNNING = 1;
+
+    private final ServerLevel level;
+    private final int parallelism;
+    private final TorusContext torus;
+    private final int total;
+    private final BitSet done;
+    private final Path progressFile;
+
+    private int nextIndex;
+    private int inFlight;
+    private int completedThisRun;
+    private final long startNanos;
+    private long lastReportNanos;
+
+    private TorusPregenerator(ServerLevel level, TorusContext torus, int parallelism, BitSet done, Path progressFile) {
+        this.level = level;
+        this.parallelism = parallelism;
+        this.torus = torus;
+        this.total = torus.chunkCount();
+        this.done = done;
+        // Ignore bits beyond the canonical rectangle (a progress file from a differently sized preset)
+        this.done.clear(this.total, Math.max(this.total, done.length()));
+        this.progressFile = progressFile;
+        this.startNanos = System.nanoTime();
+        this.lastReportNanos = this.startNanos;
+    }
+
+    // =========================================================================
+    // Lifecycle
+    // =========================================================================
+
+    /**
+     * Start (or resume) pregeneration of a torus dimension.
+     *
+     * @return the running pregenerator, or null if the level is not a torus
+     */
+    public static TorusPregenerator start(ServerLevel level, int parallelism) {
+        TorusContext torus = TorusContext.of(level);
+        if (torus == null) {
+            return null;
+        }
+        TorusPregenerator running = ACTIVE.get(level.dimension());
+        if (running != null) {
+            return running;
+        }
+
+        Path file = progressFile(level);
+        TorusPregenerator pregen = new TorusPregenerator(level, torus, Math.max(1, parallelism), readProgress(file), file);
+        ACTIVE.put(level.dimension(), pregen);
+        pregen.writeProgress(STATE_RUNNING);
+
+        WorldSize.LOGGER.info("[WorldSize] Pregeneration of {} started: {}/{} chunks already done, parallelism {}",
+                level.dimension().identifier(), pregen.done.cardinality(), pregen.total, pregen.parallelism);
+        return pregen;
+    }
+
+    /**
+     * Stop pregeneration of a dimension. Progress is kept; the next start resumes.
+     */
+    public static boolean stop(ServerLevel level) {
+        TorusPregenerator pregen = ACTIVE.remove(level.dimension());
+        if (pregen == null) {
+            return false;
+        }
+        pregen.writeProgress(STATE_STOPPED);
+        WorldSize.LOGGER.info("[WorldSize] Pregeneration of {} stopped: {}",
+                level.dimension().identifier(), pregen.describe());
+        return true;
+    }
+
+    public static TorusPregenerator get(ServerLevel level) {
+        return ACTIVE.get(level.dimension());
+    }
+
+    /**
+     * Resume every torus dimension whose last run was interrupted (crash or
+     * shutdown), and start fresh ones if pregeneration on startup is enabled.
+     */
+    public static void resumeOnStartup(MinecraftServer server) {
+        for (ServerLevel level : server.getAllLevels()) {
+            TorusContext torus = TorusContext.of(level);
+            if (torus == null) {
+                continue;
+            }
+            Path file = progressFile(level);
+            boolean interrupted = wasRunning(file);
+            boolean unfinished = readProgress(file).nextClearBit(0) < torus.chunkCount();
+            if (interrupted || (WorldSizeConfig.PREGEN_ON_START && unfinished)) {
+                start(level, WorldSizeConfig.PREGEN_PARALLELISM);
+            }
+        }
+    }
+
+    /**
+     * Flush progress of all running pregenerators, keeping them marked as
+     * running so they resume on the next startup.
+     */
+    public static void saveAll() {
+        for (TorusPregenerator pregen : ACTIVE.values()) {
+            pregen.writeProgress(STATE_RUNNING);
+        }
+        ACTIVE.clear();
+    }
+
+    /** Advance every running pregenerator. Server thread only. */
+    public static void tickAll(MinecraftServer server) {
+        if (ACTIVE.isEmpty()) {
+            return;
+        }
+        ACTIVE.values().removeIf(TorusPregenerator::tick);
+    }
+
+    // =========================================================================
+    // Per-tick work
+    // =========================================================================
+
+    /**
+     * Top up the in-flight requests and report progress.
+     *
+     * @return true once every canonical chunk is done
+     */
+    private boolean tick() {
+        while (this.inFlight < this.parallelism) {
+            int index = this.done.nextClearBit(this.nextIndex);
+            if (index >= this.total) {
+                break;
+            }
+            this.nextIndex = index + 1;
+            request(index);
+        }
+
+        long now = System.nanoTime();
+        if (now - this.lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            this.lastReportNanos = now;
+            writeProgress(STATE_RUNNING);
+            WorldSize.LOGGER.info("[WorldSize] Pregeneration of {}: {}", this.level.dimension().identifier(), describe());
+        }
+
+        if (this.inFlight == 0 && this.done.nextClearBit(0) >= this.total) {
+            writeProgress(STATE_STOPPED);
+            WorldSize.LOGGER.info("[WorldSize] Pregeneration of {} finished: {}", this.level.dimension().identifier(), describe());
+            return true;
+        }
+        return false;
+    }
+
+    private void request(int index) {
+        int chunkX = index % this.torus.sizeChunksX();
+        int chunkZ = index / this.torus.sizeChunksX();
+        this.inFlight++;
+        this.level.getChunkSource()
+                .getChunkFuture(chunkX, chunkZ, ChunkStatus.FULL, true)
+                .whenCompleteAsync((result, throwable) -> {
+                    this.inFlight--;
+                    if (throwable == null && result.isSuccess()) {
+                        this.done.set(index);
+                        this.completedThisRun++;
+                    } else {
+                        // Leave the bit clear; the next pass over the square retries it
+                        this.nextIndex = Math.min(this.nextIndex, index);
+                        WorldSize.LOGGER.warn("[WorldSize] Pregeneration failed for chunk ({}, {})", chunkX, chunkZ, throwable);
+                    }
+                }, this.level.getServer());
+    }
+
+    // =========================================================================
+    // Progress reporting
+    // =========================================================================
+
+    public int completed() {
+        return this.done.cardinality();
+    }
+
+    public int total() {
+        return this.total;
+    }
+
+    public double chunksPerSecond() {
+        double seconds = (System.nanoTime() - this.startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? this.completedThisRun / seconds : 0;
+    }
+
+    public String describe() {
+        int completed = completed();
+        return String.format("%d/%d chunks (%.1f%%), %.1f chunks/sec, %d in flight",
+                completed, this.total, completed * 100.0 / this.total, chunksPerSecond(), this.inFlight);
+    }
+
+    // =========================================================================
+    // Resume file
+    // =========================================================================
+
+    private static Path progressFile(ServerLevel level) {
+        String dimension = level.dimension().identifier().toString().replace(':', '_').replace('/', '_');
+        return level.getServer().getWorldPath(LevelResource.ROOT).resolve("worldsize_pregen_" + dimension + ".bin");
+    }
+
+    private static boolean wasRunning(Path file) {
+        try {
+            if (Files.exists(file)) {
+                byte[] bytes = Files.readAllBytes(file);
+                return bytes.length > 0 && bytes[0] == STATE_RUNNING;
+            }
+        } catch (IOException e) {
+            WorldSize.LOGGER.warn("[WorldSize] Could not read pregeneration progress {}", file, e);
+        }
+        return false;
+    }
+
+    private static BitSet readProgress(Path file) {
+        try {
+            if (Files.exists(file)) {
+                byte[] bytes = Files.readAllBytes(file);
+                if (bytes.length > 1) {
+                    return BitSet.valueOf(Arrays.copyOfRange(bytes, 1, bytes.length));
+                }
+            }
+        } catch (IOException e) {
+            WorldSize.LOGGER.warn("[WorldSize] Could not read pregeneration progress {}", file, e);
+        }
+        return new BitSet();
+    }
+
+    private void writeProgress(byte state) {
+        byte[] bits = this.done.toByteArray();
+        byte[] bytes = new byte[bits.length + 1];
+        bytes[0] = state;
+        System.arraycopy(bits, 0, bytes, 1, bits.length);
+        try {
+            Path tmp = this.progressFile.resolveSibling(this.progressFile.getFileName() + ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, this.progressFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            WorldSize.LOGGER.warn("[WorldSize] Could not write pregeneration progress {}", this.progressFile, e);
+        }
+    }
+}
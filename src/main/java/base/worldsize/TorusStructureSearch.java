@@ -0,0 +1,156 @@
+package base.worldsize;
+
+import com.mojang.datafixers.util.Pair;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.StructureManager;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.StructureCheckResult;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.placement.ConcentricRingsStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.StructurePlacement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Structure search ({@code /locate}, explorer maps, dolphins, eyes of ender)
+ * over the finite canonical rectangle.
+ *
+ * Structure starts only exist at canonical positions — aliases get copies of
+ * them (see TorusChunkGenerator#createStructures) — so the vanilla spiral
+ * over an unbounded region grid searches placements that never generate and,
+ * for a structure absent from the torus, spins through all of them. Instead:
+ *
+ * 1. Collect every candidate start chunk inside the canonical rectangle:
+ *    one potential chunk per random-spread region overlapping it, and the
+ *    ring positions of concentric placements that fall inside it.
+ * 2. Sort them by torus distance from the search origin (the shortest way
+ *    round on each axis).
+ * 3. Check them in that order with the same presence check vanilla uses,
+ *    and return the nearest copy of the first hit relative to the origin.
+ *
+ * The work is bounded by the torus size no matter how far out the caller is.
+ */
+public final class TorusStructureSearch {
+
+    private record Candidate(ChunkPos pos, StructurePlacement placement, long distanceSq) {
+    }
+
+    private TorusStructureSearch() {
+    }
+
+    public static Pair<BlockPos, Holder<Structure>> findNearest(ServerLevel level, TorusContext torus,
+                                                                HolderSet<Structure> structures, BlockPos origin,
+                                                                int searchRadius, boolean skipKnownStructures) {
+        ChunkGeneratorStructureState state = level.getChunkSource().getGeneratorState();
+        int originChunkX = SectionPos.blockToSectionCoord(origin.getX());
+        int originChunkZ = SectionPos.blockToSectionCoord(origin.getZ());
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Holder<Structure> structure : structures) {
+            for (StructurePlacement placement : state.getPlacementsForStructure(structure)) {
+                if (placement instanceof RandomSpreadStructurePlacement spread) {
+                    long maxDistance = (long) searchRadius * spread.spacing();
+                    addRandomSpread(candidates, torus, state, spread, originChunkX, originChunkZ, maxDistance * maxDistance);
+                } else if (placement instanceof ConcentricRingsStructurePlacement rings) {
+                    List<ChunkPos> positions = state.getRingPositionsFor(rings);
+                    if (positions != null) {
+                        for (ChunkPos pos : positions) {
+                            if (!torus.isAlias(pos)) {
+                                candidates.add(new Candidate(pos, rings, distanceSq(torus, pos, originChunkX, originChunkZ)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Candidate::distanceSq));
+
+        StructureManager structureManager = level.structureManager();
+        for (Candidate candidate : candidates) {
+            Pair<BlockPos, Holder<Structure>> found = structureAt(level, structureManager, structures,
+                    candidate, skipKnownStructures);
+            if (found != null) {
+                return Pair.of(nearestCopy(torus, found.getFirst(), origin), found.getSecond());
+            }
+        }
+        return null;
+    }
+
+    private static void addRandomSpread(List<Candidate> candidates, TorusContext torus, ChunkGeneratorStructureState state,
+                                        RandomSpreadStructurePlacement placement, int originChunkX, int originChunkZ,
+                                        long maxDistanceSq) {
+        int spacing = placement.spacing();
+        int lastRegionX = (torus.sizeChunksX() - 1) / spacing;
+        int lastRegionZ = (torus.sizeChunksZ() - 1) / spacing;
+        for (int regionZ = 0; regionZ <= lastRegionZ; regionZ++) {
+            for (int regionX = 0; regionX <= lastRegionX; regionX++) {
+                ChunkPos pos = placement.getPotentialStructureChunk(state.getLevelSeed(), regionX, regionZ);
+                if (torus.isAlias(pos) || !placement.isStructureChunk(state, pos.x, pos.z)) {
+                    continue;
+                }
+                long distanceSq = distanceSq(torus, pos, originChunkX, originChunkZ);
+                if (distanceSq <= maxDistanceSq) {
+                    candidates.add(new Candidate(pos, placement, distanceSq));
+                }
+            }
+        }
+    }
+
+    /**
+     * Vanilla's per-chunk check: the cheap structure-check cache first,
+     * loading the chunk to STRUCTURE_STARTS only when it cannot tell.
+     */
+    private static Pair<BlockPos, Holder<Structure>> structureAt(ServerLevel level, StructureManager structureManager,
+                                                                 HolderSet<Structure> structures, Candidate candidate,
+                                                                 boolean skipKnownStructures) {
+        for (Holder<Structure> structure : structures) {
+            StructureCheckResult result = structureManager.checkStructurePresence(candidate.pos, structure.value(),
+                    candidate.placement, skipKnownStructures);
+            if (result == StructureCheckResult.START_NOT_PRESENT) {
+                continue;
+            }
+            if (!skipKnownStructures && result == StructureCheckResult.START_PRESENT) {
+                return Pair.of(candidate.placement.getLocatePos(candidate.pos), structure);
+            }
+
+            ChunkAccess chunk = level.getChunk(candidate.pos.x, candidate.pos.z, ChunkStatus.STRUCTURE_STARTS);
+            StructureStart start = structureManager.getStartForStructure(SectionPos.bottomOf(chunk), structure.value(), chunk);
+            if (start != null && start.isValid() && (!skipKnownStructures || addReference(structureManager, start))) {
+                return Pair.of(candidate.placement.getLocatePos(start.getChunkPos()), structure);
+            }
+        }
+        return null;
+    }
+
+    private static boolean addReference(StructureManager structureManager, StructureStart start) {
+        if (start.canBeReferenced()) {
+            structureManager.addReference(start);
+            return true;
+        }
+        return false;
+    }
+
+    private static long distanceSq(TorusContext torus, ChunkPos pos, int originChunkX, int originChunkZ) {
+        long dx = torus.shortestChunkDeltaX(pos.x - originChunkX);
+        long dz = torus.shortestChunkDeltaZ(pos.z - originChunkZ);
+        return dx * dx + dz * dz;
+    }
+
+    /** The copy of a canonical block position closest to the origin. */
+    private static BlockPos nearestCopy(TorusContext torus, BlockPos canonical, BlockPos origin) {
+        int dx = torus.shortestBlockDeltaX(canonical.getX() - origin.getX());
+        int dz = torus.shortestBlockDeltaZ(canonical.getZ() - origin.getZ());
+        return new BlockPos(origin.getX() + dx, canonical.getY(), origin.getZ() + dz);
+    }
+}
@@ -1,12 +1,13 @@
 package base.worldsize;
 
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.Identifier;
-import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,16 +17,17 @@ public class WorldSize implements ModInitializer {
 	public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
 
 	/**
-	 * World size in chunks. The world wraps every WORLD_SIZE_CHUNKS chunks on both X and Z axes.
-	 * 64 chunks = 1024 blocks.
+	 * Default world size in chunks, used when a torus generator does not set
+	 * size_chunks_x / size_chunks_z. 64 chunks = 1024 blocks.
+	 * These are fallbacks, not the size control: a dimension's size comes from
+	 * its world preset and lives in its {@link TorusContext}.
 	 */
 	public static final int WORLD_SIZE_CHUNKS = 64;
 	public static final int WORLD_SIZE_BLOCKS = WORLD_SIZE_CHUNKS * 16; // 1024
 
 	@Override
 	public void onInitialize() {
-		LOGGER.info("[WorldSize] Initializing Torus World mod - world size: {}x{} blocks ({}x{} chunks)",
-				WORLD_SIZE_BLOCKS, WORLD_SIZE_BLOCKS, WORLD_SIZE_CHUNKS, WORLD_SIZE_CHUNKS);
+		LOGGER.info("[WorldSize] Initializing Torus World mod - default world size: {}", TorusContext.DEFAULT);
 
 		// Register the custom chunk generator
 		Registry.register(
@@ -34,53 +36,60 @@ public class WorldSize implements ModInitializer {
 				TorusChunkGenerator.CODEC
 		);
 
-		// Register player teleportation on tick to wrap players at world boundaries
-		ServerTickEvents.END_SERVER_TICK.register(server -> {
-			for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-				double x = player.getX();
-				double z = player.getZ();
-				double newX = wrapCoordinate(x);
-				double newZ = wrapCoordinate(z);
-
-				if (newX != x || newZ != z) {
-					ServerLevel serverLevel = (ServerLevel) player.level();
-					player.teleportTo(
-							serverLevel,
-							newX, player.getY(), newZ,
-							java.util.Set.of(),
-							player.getYRot(), player.getXRot(),
-							false
-					);
-					LOGGER.debug("[WorldSize] Wrapped player {} from ({}, {}) to ({}, {})",
-							player.getName().getString(), x, z, newX, newZ);
+		// Wrap entities of every type that crossed the seam this tick (queued by EntityMixin)
+		ServerTickEvents.END_SERVER_TICK.register(SeamCrossing::tick);
+
+		// Load the far side of the seam before players get there
+		SeamPrewarmer.register();
+		ServerTickEvents.END_SERVER_TICK.register(SeamPrewarmer::tick);
+
+		// Pregeneration of the canonical chunk square (/torus pregen, -Dworldsize.pregen.onStart)
+		ServerTickEvents.END_SERVER_TICK.register(TorusPregenerator::tickAll);
+		ServerLifecycleEvents.SERVER_STARTED.register(TorusPregenerator::resumeOnStartup);
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> TorusPregenerator.saveAll());
+
+		// Block changes repeated across the seam (-Dworldsize.mirrorEdits, /torus mirror)
+		if (WorldSizeConfig.MIRROR_EDITS) {
+			ServerTickEvents.END_SERVER_TICK.register(EditMirror::tick);
+			ServerLifecycleEvents.SERVER_STOPPING.register(server -> EditMirror.saveAll());
+		}
+
+		// Memory-mapped canonical chunk store (-Dworldsize.canonicalStore), resolved per dimension
+		if (WorldSizeConfig.CANONICAL_STORE) {
+			ServerWorldEvents.LOAD.register((server, level) -> {
+				TorusContext torus = TorusContext.of(level);
+				if (torus != null) {
+					CanonicalChunkStore.enableFor(level.dimension(), torus);
 				}
-			}
-		});
+			});
+			ServerLifecycleEvents.SERVER_STOPPED.register(server -> CanonicalChunkStore.reset());
+		}
 
-		LOGGER.info("[WorldSize] Torus World mod initialized successfully");
-	}
+		// Alias-versus-canonical check and throughput run (/torus verify, ./gradlew runTorusHarness)
+		ServerTickEvents.END_SERVER_TICK.register(TorusHarness::tickAll);
+		if (WorldSizeConfig.HARNESS) {
+			ServerLifecycleEvents.SERVER_STARTED.register(TorusHarness::startHeadless);
+		}
 
-	/**
-	 * Wraps a block coordinate into the range [0, WORLD_SIZE_BLOCKS).
-	 * Uses Java's floorMod for correct negative number handling.
-	 */
-	public static int wrapBlock(int coord) {
-		return Math.floorMod(coord, WORLD_SIZE_BLOCKS);
-	}
+		// Biome and height map of the whole torus (/torus map, ./gradlew runTorusMap)
+		if (WorldSizeConfig.MAP) {
+			ServerLifecycleEvents.SERVER_STARTED.register(TorusMapExport::startHeadless);
+		}
 
-	/**
-	 * Wraps a chunk coordinate into the range [0, WORLD_SIZE_CHUNKS).
-	 */
-	public static int wrapChunk(int chunkCoord) {
-		return Math.floorMod(chunkCoord, WORLD_SIZE_CHUNKS);
-	}
+		// Player positions for the generation executor's priority queue (-Dworldsize.executor.threads)
+		if (TorusGenerationExecutor.isEnabled()) {
+			ServerTickEvents.END_SERVER_TICK.register(TorusGenerationExecutor::tick);
+			ServerLifecycleEvents.SERVER_STOPPED.register(server -> TorusGenerationExecutor.reset());
+		}
 
-	/**
-	 * Wraps a double coordinate (for entity positions) into [0, WORLD_SIZE_BLOCKS).
-	 */
-	public static double wrapCoordinate(double coord) {
-		double wrapped = coord % WORLD_SIZE_BLOCKS;
-		if (wrapped < 0) wrapped += WORLD_SIZE_BLOCKS;
-		return wrapped;
+		// Per-stage worldgen timing (/torus metrics, periodic log line)
+		if (WorldSizeConfig.METRICS) {
+			ServerTickEvents.END_SERVER_TICK.register(TorusMetrics::tick);
+		}
+
+		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) ->
+				TorusCommands.register(dispatcher));
+
+		LOGGER.info("[WorldSize] Torus World mod initialized successfully");
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package base.worldsize;
+
+/**
+ * Tunables for the torus generator, read once from JVM system properties.
+ *
+ * Everything here is a performance knob, not world data — nothing in this class
+ * changes what the world looks like, only how (and how fast) it gets built.
+ * The one exception is {@link #MIRROR_EDITS}, which is gameplay behaviour and
+ * off unless asked for.
+ * Pass them on the server command line, e.g. {@code -Dworldsize.templateCache.maxChunks=2048}.
+ */
+public final class WorldSizeConfig {
+
+    /**
+     * Maximum number of canonical chunk templates kept in memory by each
+     * {@link TorusChunkGenerator}, per stage (noise, surface, carvers). One
+     * template per wrapped ChunkPos; 0 disables the caches.
+     * The full canonical set is sizeChunksX × sizeChunksZ (4096 at the default size) chunks.
+     */
+    public static final int TEMPLATE_CACHE_MAX_CHUNKS =
+            Math.max(0, Integer.getInteger("worldsize.templateCache.maxChunks", 1024));
+
+    /**
+     * Maximum number of canonical decoration records (see {@link DecorationRecord})
+     * kept by each generator for replay onto aliases. 0 disables replay; carved
+     * templates are bounded by the template cache size.
+     */
+    public static final int DECORATION_CACHE_MAX_CHUNKS =
+            Math.max(0, Integer.getInteger("worldsize.decorationCache.maxChunks", 1024));
+
+    /**
+     * Maximum number of canonical chunks whose light (see {@link LightTemplate})
+     * each generator keeps for aliases. Up to two 2 KiB layers per section;
+     * 0 relights every alias from scratch.
+     */
+    public static final int LIGHT_CACHE_MAX_CHUNKS =
+            Math.max(0, Integer.getInteger("worldsize.lightCache.maxChunks", 512));
+
+    /**
+     * Maximum number of canonical chunks whose structure starts are kept for
+     * projection onto aliases. Most chunks have none, so entries are small.
+     */
+    public static final int STRUCTURE_CACHE_MAX_CHUNKS =
+            Math.max(0, Integer.getInteger("worldsize.structureCache.maxChunks", 16384));
+
+    /**
+     * Maximum number of full NoiseColumns kept by each generator's base column cache.
+     * Base heights are always cached; this only bounds the getBaseColumn() LRU.
+     */
+    public static final int BASE_COLUMN_CACHE_SIZE =
+            Math.max(0, Integer.getInteger("worldsize.baseColumnCache.size", 4096));
+
+    /**
+     * Number of chunk requests the pregenerator keeps in flight at once.
+     * Defaults to one per available core.
+     */
+    public static final int PREGEN_PARALLELISM =
+            Math.max(1, Integer.getInteger("worldsize.pregen.parallelism", Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Pregenerate every canonical chunk of each torus dimension when the server
+     * starts, unless that has already been completed for this world.
+     */
+    public static final boolean PREGEN_ON_START = Boolean.getBoolean("worldsize.pregen.onStart");
+
+    /**
+     * Store alias chunks that are unchanged since generation and identical to
+     * their saved canonical chunk as a reference to it instead of a full copy.
+     */
+    public static final boolean DEDUP_ALIAS_SAVES = Boolean.getBoolean("worldsize.dedupAliasSaves");
+
+    /**
+     * GAMEPLAY, not performance: repeat player and command edits at every copy
+     * of their wrap class (see {@link EditMirror}), rewriting blocks in chunks
+     * the player never touched. Without it, blocks placed on one side of the
+     * seam are missing on the other.
+     */
+    public static final boolean MIRROR_EDITS = Boolean.getBoolean("worldsize.mirrorEdits");
+
+    /**
+     * Keep canonical chunks of torus dimensions in a single memory-mapped file
+     * (region/torus_canonical.bin) instead of region files.
+     */
+    public static final boolean CANONICAL_STORE = Boolean.getBoolean("worldsize.canonicalStore");
+
+    /**
+     * Size of one copy of a canonical store slot in KiB (each slot holds two,
+     * plus a 16-byte header per copy). Chunks whose uncompressed NBT does not fit
+     * are written to their region file instead. Changing this requires a new
+     * store file.
+     */
+    public static final int CANONICAL_STORE_SLOT_KB =
+            Math.max(16, Integer.getInteger("worldsize.canonicalStore.slotKb", 256));
+
+    /**
+     * How far ahead (in blocks) of a moving player the seam pre-warmer looks for
+     * a crossing. 0 disables pre-warming.
+     */
+    public static final int PREWARM_LOOKAHEAD_BLOCKS =
+            Math.max(0, Integer.getInteger("worldsize.prewarm.lookaheadBlocks", 64));
+
+    /**
+     * Fast travellers look further ahead: speed (blocks/tick) times this many ticks,
+     * if that is more than the look-ahead distance.
+     */
+    public static final int PREWARM_LOOKAHEAD_TICKS =
+            Math.max(0, Integer.getInteger("worldsize.prewarm.lookaheadTicks", 100));
+
+    /**
+     * Radius (in chunks) loaded around each predicted landing chunk. The default
+     * covers the strip the player lands in, not their whole view: the rest
+     * loads after the teleport as usual. -1 uses the server view distance,
+     * which pre-loads (2 * viewDistance + 1)² chunks per crossing.
+     */
+    public static final int PREWARM_RADIUS =
+            Math.max(-1, Integer.getInteger("worldsize.prewarm.radius", 2));
+
+    /** Concurrency budget: maximum new pre-warm tickets placed per server tick. */
+    public static final int PREWARM_MAX_TICKETS_PER_TICK =
+            Math.max(1, Integer.getInteger("worldsize.prewarm.maxTicketsPerTick", 4));
+
+    /**
+     * Lifetime of a pre-warm ticket in ticks. A landing can be predicted up to
+     * lookaheadTicks before the crossing, so the ticket must outlive that or it
+     * expires as the player arrives; values below lookaheadTicks + 20 are
+     * raised to it. Tickets are renewed while the prediction still holds.
+     */
+    public static final long PREWARM_TICKET_TICKS = Math.max(PREWARM_LOOKAHEAD_TICKS + 20,
+            Integer.getInteger("worldsize.prewarm.ticketTicks", PREWARM_LOOKAHEAD_TICKS + 100));
+
+    /**
+     * Threads of the dedicated torus generation executor (createBiomes and
+     * fillFromNoise). 0 keeps those stages on the vanilla worker pool.
+     */
+    public static final int EXECUTOR_THREADS =
+            Math.max(0, Integer.getInteger("worldsize.executor.threads", 0));
+
+    /** Run the generation executor's tasks on virtual threads (still bounded by the thread count). */
+    public static final boolean EXECUTOR_VIRTUAL = Boolean.getBoolean("worldsize.executor.virtual");
+
+    /** Per-stage worldgen timing (histograms and JFR events). */
+    public static final boolean METRICS =
+            Boolean.parseBoolean(System.getProperty("worldsize.metrics", "true"));
+
+    /**
+     * Count wrap operations per mixin. Off by default: the counted paths run
+     * per column and per biome quart, so even a striped counter shows up there.
+     */
+    public static final boolean METRICS_WRAP_COUNTERS =
+            Boolean.getBoolean("worldsize.metrics.wrapCounters");
+
+    /** Seconds between worldgen metrics log lines. 0 disables the log line. */
+    public static final int METRICS_LOG_INTERVAL_SECONDS =
+            Math.max(0, Integer.getInteger("worldsize.metrics.logIntervalSeconds", 60));
+
+    /**
+     * Headless harness mode: run {@link TorusHarness} in the overworld once the
+     * server has started, then shut down. Set by {@code ./gradlew runTorusHarness}.
+     */
+    public static final boolean HARNESS = Boolean.getBoolean("worldsize.harness");
+
+    /** Radius (in chunks) of the harness window. */
+    public static final int HARNESS_RADIUS =
+            Math.max(0, Integer.getInteger("worldsize.harness.radius", 8));
+
+    /** How many full laps out the harness window is centred. */
+    public static final int HARNESS_LAPS = Integer.getInteger("worldsize.harness.laps", 16);
+
+    /**
+     * Decorate aliases for real instead of replaying the canonical record, and
+     * log every alias whose decoration writes something the record does not.
+     * Much slower than replaying; set by {@code ./gradlew runTorusHarness}.
+     */
+    public static final boolean VERIFY_DECORATION = Boolean.getBoolean("worldsize.verifyDecoration");
+
+    /**
+     * Headless map mode: render the overworld with {@link TorusMapExport} once
+     * the server has started, then shut down. Set by {@code ./gradlew runTorusMap}.
+     */
+    public static final boolean MAP = Boolean.getBoolean("worldsize.map");
+
+    /** Blocks per pixel of map exports (the default for {@code /torus map}). */
+    public static final int MAP_BLOCKS_PER_PIXEL =
+            Math.max(1, Integer.getInteger("worldsize.map.blocksPerPixel", 4));
+
+    private WorldSizeConfig() {
+    }
+}
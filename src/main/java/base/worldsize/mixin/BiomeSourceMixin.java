@@ -0,0 +1,27 @@
+package base.worldsize.mixin;
+
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import net.minecraft.world.level.biome.BiomeSource;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Carries the torus context for the biome source of a torus generator; the biome-source mixins read it on every lookup.
+ */
+@Mixin(BiomeSource.class)
+public abstract class BiomeSourceMixin implements TorusContextHolder {
+
+    @Unique
+    private TorusContext worldsize$torus;
+
+    @Override
+    public TorusContext worldsize$torus() {
+        return this.worldsize$torus;
+    }
+
+    @Override
+    public void worldsize$setTorus(TorusContext torus) {
+        this.worldsize$torus = torus;
+    }
+}
@@ -1,41 +1,37 @@
 package base.worldsize.mixin;
 
-import base.worldsize.TorusChunkGenerator;
-import base.worldsize.WorldSize;
-import net.minecraft.world.level.biome.Biome;
-import net.minecraft.world.level.biome.BiomeSource;
-import net.minecraft.world.level.biome.Climate;
-import net.minecraft.core.Holder;
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import base.worldsize.TorusMetrics;
+import base.worldsize.WorldSizeConfig;
 import net.minecraft.world.level.biome.CheckerboardColumnBiomeSource;
 import org.spongepowered.asm.mixin.Mixin;
-import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.asm.mixin.injection.ModifyVariable;
 
+/**
+ * Wraps the quart coordinates of checkerboard biome lookups as they enter
+ * getNoiseBiome(), so the vanilla body resolves the wrapped position directly.
+ * No re-entry, no ThreadLocal guard and no callback object per lookup.
+ */
 @Mixin(CheckerboardColumnBiomeSource.class)
 public abstract class CheckerboardColumnBiomeSourceMixin {
 
-    @Unique
-    private static final ThreadLocal<Boolean> worldsize$wrapping = ThreadLocal.withInitial(() -> false);
-
-    @Inject(method = "getNoiseBiome", at = @At("HEAD"), cancellable = true)
-    private void wrapBiomeCoordinates(int quartX, int quartY, int quartZ, Climate.Sampler sampler,
-                                      CallbackInfoReturnable<Holder<Biome>> cir) {
-        if (TorusChunkGenerator.isTorusActive() && !worldsize$wrapping.get()) {
-            int quartSize = WorldSize.WORLD_SIZE_BLOCKS >> 2;
-            int wrappedX = Math.floorMod(quartX, quartSize);
-            int wrappedZ = Math.floorMod(quartZ, quartSize);
-
-            if (wrappedX != quartX || wrappedZ != quartZ) {
-                worldsize$wrapping.set(true);
-                try {
-                    Holder<Biome> result = ((BiomeSource)(Object)this).getNoiseBiome(wrappedX, quartY, wrappedZ, sampler);
-                    cir.setReturnValue(result);
-                } finally {
-                    worldsize$wrapping.set(false);
-                }
-            }
+    @ModifyVariable(method = "getNoiseBiome", at = @At("HEAD"), ordinal = 0, argsOnly = true)
+    private int wrapQuartX(int quartX) {
+        TorusContext torus = ((TorusContextHolder) this).worldsize$torus();
+        if (torus == null) {
+            return quartX;
+        }
+        if (WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+            TorusMetrics.countWrap(TorusMetrics.WrapSite.BIOME_QUART);
         }
+        return torus.wrapQuartX(quartX);
+    }
+
+    @ModifyVariable(method = "getNoiseBiome", at = @At("HEAD"), ordinal = 2, argsOnly = true)
+    private int wrapQuartZ(int quartZ) {
+        TorusContext torus = ((TorusContextHolder) this).worldsize$torus();
+        return torus != null ? torus.wrapQuartZ(quartZ) : quartZ;
     }
-}
\ No newline at end of file
+}
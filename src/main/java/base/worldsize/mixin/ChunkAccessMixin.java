@@ -0,0 +1,115 @@
+package base.worldsize.mixin;
+
+import base.worldsize.CanonicalContent;
+import base.worldsize.EditStamped;
+import base.worldsize.PristineChunk;
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Adds the pristine flag used to skip saving unmodified alias chunks.
+ *
+ * Worldgen marks chunks unsaved constantly, so edits are only tracked once
+ * the chunk has finished post-processing as a LevelChunk (see LevelChunkMixin).
+ * After that, the first markUnsaved() — a block change, block entity update,
+ * fluid tick, anything — permanently clears the flag.
+ *
+ * Also carries the torus context of the generator that is generating the
+ * chunk, read once per NoiseChunk and SurfaceRules.Context, and whether the
+ * chunk still matches its canonical chunk for light reuse (CanonicalContent),
+ * and the stamp of the last mirrored edit it has taken (EditStamped).
+ */
+@Mixin(ChunkAccess.class)
+public abstract class ChunkAccessMixin implements PristineChunk, TorusContextHolder, CanonicalContent, EditStamped {
+
+    @Unique
+    private TorusContext worldsize$torus;
+
+    @Unique
+    private boolean worldsize$pristine;
+
+    @Unique
+    private boolean worldsize$trackingEdits;
+
+    @Unique
+    private boolean worldsize$matchesCanonical;
+
+    @Unique
+    private boolean worldsize$canonicalLight;
+
+    @Unique
+    private long worldsize$editStamp;
+
+    @Override
+    public boolean worldsize$isPristine() {
+        return this.worldsize$pristine;
+    }
+
+    @Override
+    public void worldsize$setPristine(boolean pristine) {
+        this.worldsize$pristine = pristine;
+    }
+
+    @Override
+    public TorusContext worldsize$torus() {
+        return this.worldsize$torus;
+    }
+
+    @Override
+    public void worldsize$setTorus(TorusContext torus) {
+        this.worldsize$torus = torus;
+    }
+
+    @Override
+    public void worldsize$startTrackingEdits() {
+        this.worldsize$trackingEdits = true;
+    }
+
+    @Override
+    public boolean worldsize$isTrackingEdits() {
+        return this.worldsize$trackingEdits;
+    }
+
+    @Override
+    public boolean worldsize$matchesCanonical() {
+        return this.worldsize$matchesCanonical;
+    }
+
+    @Override
+    public void worldsize$setMatchesCanonical(boolean matches) {
+        this.worldsize$matchesCanonical = matches;
+    }
+
+    @Override
+    public boolean worldsize$hasCanonicalLight() {
+        return this.worldsize$canonicalLight;
+    }
+
+    @Override
+    public void worldsize$setCanonicalLight(boolean canonicalLight) {
+        this.worldsize$canonicalLight = canonicalLight;
+    }
+
+    @Override
+    public long worldsize$editStamp() {
+        return this.worldsize$editStamp;
+    }
+
+    @Override
+    public void worldsize$setEditStamp(long stamp) {
+        this.worldsize$editStamp = stamp;
+    }
+
+    @Inject(method = "markUnsaved", at = @At("HEAD"))
+    private void clearPristineOnEdit(CallbackInfo ci) {
+        if (this.worldsize$trackingEdits) {
+            this.worldsize$pristine = false;
+        }
+    }
+}
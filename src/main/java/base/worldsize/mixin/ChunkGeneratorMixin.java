@@ -0,0 +1,27 @@
+package base.worldsize.mixin;
+
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Carries the torus context for the TorusChunkGenerator AND its internal NoiseBasedChunkGenerator delegate — features receive the delegate, not the torus generator.
+ */
+@Mixin(ChunkGenerator.class)
+public abstract class ChunkGeneratorMixin implements TorusContextHolder {
+
+    @Unique
+    private TorusContext worldsize$torus;
+
+    @Override
+    public TorusContext worldsize$torus() {
+        return this.worldsize$torus;
+    }
+
+    @Override
+    public void worldsize$setTorus(TorusContext torus) {
+        this.worldsize$torus = torus;
+    }
+}
@@ -0,0 +1,105 @@
+package base.worldsize.mixin;
+
+import base.worldsize.AliasReference;
+import base.worldsize.PristineChunk;
+import base.worldsize.TorusContext;
+import base.worldsize.WorldSize;
+import base.worldsize.WorldSizeConfig;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ChunkMap;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ai.village.poi.PoiManager;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.storage.ChunkStorage;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deduplicated region storage: unmodified alias chunks are stored as a
+ * reference to their canonical chunk instead of a full copy.
+ *
+ * An alias that nobody modified usually holds exactly the blocks its
+ * canonical chunk holds. Regenerating it on the next load would NOT give
+ * them back — part of its content is what its neighbours' features spilled
+ * into it, and neighbours that are already saved do not decorate again — so
+ * the alias is never simply dropped. When a pristine FULL alias is saved
+ * while its canonical chunk is loaded, saved and holds the same blocks, a
+ * small stub naming the canonical chunk is written instead
+ * ({@link AliasReference}); loading the stub reads the canonical chunk's
+ * saved data and moves it to the alias position.
+ *
+ * ProtoChunks (anything short of FULL), modified aliases, aliases that
+ * differ from their canonical chunk or hold items in block entities, and
+ * all canonical chunks are saved as usual. Opt-in via -Dworldsize.dedupAliasSaves=true.
+ */
+@Mixin(ChunkMap.class)
+public abstract class ChunkMapMixin {
+
+    @Shadow
+    @Final
+    ServerLevel level;
+
+    @Shadow
+    @Final
+    private PoiManager poiManager;
+
+    @Shadow
+    protected abstract CompletableFuture<Optional<CompoundTag>> readChunk(ChunkPos pos);
+
+    @Inject(method = "save(Lnet/minecraft/world/level/chunk/ChunkAccess;)Z", at = @At("HEAD"), cancellable = true)
+    private void saveAliasReference(ChunkAccess chunk, CallbackInfoReturnable<Boolean> cir) {
+        if (!WorldSizeConfig.DEDUP_ALIAS_SAVES || !(chunk instanceof LevelChunk alias)) {
+            return;
+        }
+        TorusContext torus = TorusContext.of(this.level);
+        ChunkPos pos = alias.getPos();
+        if (torus == null || !torus.isAlias(pos) || !((PristineChunk) alias).worldsize$isPristine()) {
+            return;
+        }
+        ChunkPos canonicalPos = torus.canonicalPos(pos);
+        LevelChunk canonical = this.level.getChunkSource().getChunkNow(canonicalPos.x, canonicalPos.z);
+        if (canonical == null || !AliasReference.canReference(alias, canonical)) {
+            return;
+        }
+
+        this.poiManager.flush(pos);
+        if (alias.tryMarkSaved()) {
+            CompoundTag stub = AliasReference.stub(pos, canonicalPos);
+            ((ChunkStorage) (Object) this).write(pos, () -> stub);
+            cir.setReturnValue(true);
+        } else {
+            cir.setReturnValue(false);
+        }
+    }
+
+    /**
+     * Resolve a stored reference against the canonical chunk's saved data.
+     * If that is gone, the alias is regenerated (and the loss logged).
+     */
+    @Inject(method = "readChunk", at = @At("RETURN"), cancellable = true)
+    private void resolveAliasReference(ChunkPos pos, CallbackInfoReturnable<CompletableFuture<Optional<CompoundTag>>> cir) {
+        cir.setReturnValue(cir.getReturnValue().thenCompose(stored -> {
+            ChunkPos canonicalPos = stored.map(AliasReference::canonicalOf).orElse(null);
+            if (canonicalPos == null) {
+                return CompletableFuture.completedFuture(stored);
+            }
+            return readChunk(canonicalPos).thenApply(canonical -> {
+                if (canonical.isEmpty() || AliasReference.canonicalOf(canonical.get()) != null) {
+                    WorldSize.LOGGER.warn("[WorldSize] Alias chunk {} refers to canonical chunk {}, which has no saved data; regenerating it",
+                            pos, canonicalPos);
+                    return Optional.empty();
+                }
+                return Optional.of(AliasReference.relocate(canonical.get(), canonicalPos, pos));
+            });
+        }));
+    }
+}
@@ -0,0 +1,84 @@
+package base.worldsize.mixin;
+
+import base.worldsize.CanonicalContent;
+import base.worldsize.LightTemplate;
+import base.worldsize.PristineChunk;
+import base.worldsize.TorusChunkGenerator;
+import net.minecraft.server.level.GenerationChunkHolder;
+import net.minecraft.util.StaticCache2D;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkStatusTasks;
+import net.minecraft.world.level.chunk.status.ChunkStep;
+import net.minecraft.world.level.chunk.status.WorldGenContext;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+/**
+ * Lights alias chunks with their canonical chunk's light instead of
+ * propagating every source again.
+ *
+ * Vanilla skips propagation for chunks that are already lit (loaded from
+ * disk with stored light). An alias that still holds the canonical blocks is
+ * treated the same way: when its light is initialized, the canonical light is
+ * queued as its stored data and the chunk counts as lit; when it is lit,
+ * only the light sources and sky light near its edges are re-checked.
+ *
+ * Canonical light around the edges was shaped by the canonical neighbours,
+ * so light is only reused while every neighbour in the generation cache
+ * still holds its canonical blocks (and, once loaded, was never edited).
+ */
+@Mixin(ChunkStatusTasks.class)
+public abstract class ChunkStatusTasksMixin {
+
+    @Shadow
+    private static boolean isLighted(ChunkAccess chunk) {
+        throw new AssertionError();
+    }
+
+    @Redirect(
+            method = {"initializeLight", "light"},
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/world/level/chunk/status/ChunkStatusTasks;isLighted(Lnet/minecraft/world/level/chunk/ChunkAccess;)Z"
+            )
+    )
+    private static boolean reuseCanonicalLight(ChunkAccess chunk, WorldGenContext context, ChunkStep step,
+                                               StaticCache2D<GenerationChunkHolder> cache, ChunkAccess target) {
+        if (isLighted(chunk)) {
+            return true;
+        }
+        CanonicalContent content = (CanonicalContent) chunk;
+        if (content.worldsize$hasCanonicalLight()) {
+            // Second call, from light(): the copied light is in place
+            LightTemplate.relightEdges(context.lightEngine(), chunk);
+            return true;
+        }
+        if (context.generator() instanceof TorusChunkGenerator generator
+                && neighboursMatchCanonical(cache, chunk.getPos())
+                && generator.reuseCanonicalLight(context.lightEngine(), chunk)) {
+            content.worldsize$setCanonicalLight(true);
+            return true;
+        }
+        return false;
+    }
+
+    @Unique
+    private static boolean neighboursMatchCanonical(StaticCache2D<GenerationChunkHolder> cache, ChunkPos pos) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dz != 0) && cache.contains(pos.x + dx, pos.z + dz)) {
+                    ChunkAccess neighbour = cache.get(pos.x + dx, pos.z + dz).getLatestChunk();
+                    if (neighbour != null && (!((CanonicalContent) neighbour).worldsize$matchesCanonical()
+                            || !((PristineChunk) neighbour).worldsize$isPristine())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package base.worldsize.mixin;
+
+import base.worldsize.EditMirror;
+import net.minecraft.commands.Commands;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Block changes made by a command (/setblock, /fill, /clone, command blocks)
+ * are explicit edits and are mirrored like a player's (see {@link EditMirror}).
+ */
+@Mixin(Commands.class)
+public abstract class CommandsMixin {
+
+    @Inject(method = "performCommand", at = @At("HEAD"))
+    private void beginExplicitEdit(CallbackInfo ci) {
+        EditMirror.beginExplicitEdit();
+    }
+
+    @Inject(method = "performCommand", at = @At("RETURN"))
+    private void endExplicitEdit(CallbackInfo ci) {
+        EditMirror.endExplicitEdit();
+    }
+}
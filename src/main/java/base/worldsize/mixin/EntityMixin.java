@@ -0,0 +1,43 @@
+package base.worldsize.mixin;
+
+import base.worldsize.SeamCrossing;
+import base.worldsize.SeamTracked;
+import base.worldsize.TorusContext;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Queues an entity for seam crossing the moment its position leaves the
+ * canonical square. setPosRaw() is the single funnel for every entity
+ * position change (movement, teleports, vehicle positioning).
+ *
+ * Only server levels of torus dimensions carry a context (ServerLevelMixin),
+ * so client-side and non-torus entities drop out after one field read.
+ */
+@Mixin(Entity.class)
+public abstract class EntityMixin implements SeamTracked {
+
+    @Unique
+    private boolean worldsize$seamQueued;
+
+    @Override
+    public void worldsize$clearSeamQueued() {
+        this.worldsize$seamQueued = false;
+    }
+
+    @Inject(method = "setPosRaw(DDD)V", at = @At("TAIL"))
+    private void queueSeamCrossing(double x, double y, double z, CallbackInfo ci) {
+        if (this.worldsize$seamQueued) {
+            return;
+        }
+        TorusContext torus = TorusContext.of(((Entity) (Object) this).level());
+        if (torus != null && torus.isOutside(x, z)) {
+            this.worldsize$seamQueued = true;
+            SeamCrossing.queue((Entity) (Object) this);
+        }
+    }
+}
@@ -1,29 +1,53 @@
 package base.worldsize.mixin;
 
-import base.worldsize.TorusChunkGenerator;
-import base.worldsize.WorldSize;
-import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import base.worldsize.TorusMetrics;
+import base.worldsize.WorldSizeConfig;
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Mutable;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * Wraps feature placement origins (trees, ores, lakes, etc.) to match torus coordinates.
+ *
+ * The origin is wrapped ONCE, when the context is constructed, using the torus
+ * context of the generator the feature is placed with (the torus generator's
+ * delegate during decoration). Features call origin() many times; every call
+ * after that is the plain vanilla field read — no injection, no allocation.
  */
 @Mixin(FeaturePlaceContext.class)
 public abstract class FeaturePlaceContextMixin {
 
-    @Inject(method = "origin", at = @At("RETURN"), cancellable = true)
-    private void wrapOrigin(CallbackInfoReturnable<BlockPos> cir) {
-        if (TorusChunkGenerator.isTorusActive()) {
-            BlockPos pos = cir.getReturnValue();
-            int wrappedX = WorldSize.wrapBlock(pos.getX());
-            int wrappedZ = WorldSize.wrapBlock(pos.getZ());
+    @Shadow
+    @Final
+    private ChunkGenerator chunkGenerator;
+
+    @Shadow
+    @Final
+    @Mutable
+    private BlockPos origin;
+
+    @Inject(method = "<init>", at = @At("TAIL"))
+    private void wrapOrigin(CallbackInfo ci) {
+        TorusContext torus = ((TorusContextHolder) this.chunkGenerator).worldsize$torus();
+        if (torus != null) {
+            BlockPos pos = this.origin;
+            int wrappedX = torus.wrapBlockX(pos.getX());
+            int wrappedZ = torus.wrapBlockZ(pos.getZ());
             if (wrappedX != pos.getX() || wrappedZ != pos.getZ()) {
-                cir.setReturnValue(new BlockPos(wrappedX, pos.getY(), wrappedZ));
+                if (WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+                    TorusMetrics.countWrap(TorusMetrics.WrapSite.FEATURE_ORIGIN);
+                }
+                this.origin = new BlockPos(wrappedX, pos.getY(), wrappedZ);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package base.worldsize.mixin;
+
+import base.worldsize.CanonicalContent;
+import base.worldsize.EditMirror;
+import base.worldsize.EditStamped;
+import base.worldsize.PristineChunk;
+import base.worldsize.TorusChunkGenerator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Carries the pristine and canonical-content flags and the mirrored-edit
+ * stamp from the ProtoChunk to its LevelChunk.
+ *
+ * A ProtoChunk that picked up entities during generation (spawnOriginalMobs,
+ * structure mobs) is NOT pristine: those entities are saved separately, so
+ * regenerating the chunk later would spawn them a second time.
+ *
+ * Also hands the light of freshly generated canonical chunks to their
+ * generator, for aliases to reuse, and feeds player and command edits of
+ * live chunks to the {@link EditMirror}.
+ */
+@Mixin(LevelChunk.class)
+public abstract class LevelChunkMixin {
+
+    @Shadow
+    @Final
+    Level level;
+
+    @Inject(
+            method = "<init>(Lnet/minecraft/server/level/ServerLevel;Lnet/minecraft/world/level/chunk/ProtoChunk;Lnet/minecraft/world/level/chunk/LevelChunk$PostLoadProcessor;)V",
+            at = @At("TAIL")
+    )
+    private void inheritPristine(ServerLevel level, ProtoChunk protoChunk, LevelChunk.PostLoadProcessor postLoad, CallbackInfo ci) {
+        boolean pristine = ((PristineChunk) protoChunk).worldsize$isPristine() && protoChunk.getEntities().isEmpty();
+        ((PristineChunk) this).worldsize$setPristine(pristine);
+        ((CanonicalContent) this).worldsize$setMatchesCanonical(((CanonicalContent) protoChunk).worldsize$matchesCanonical());
+        ((EditStamped) this).worldsize$setEditStamp(((EditStamped) protoChunk).worldsize$editStamp());
+    }
+
+    /**
+     * A generated chunk is lit by the time it becomes a LevelChunk, so this is
+     * where a canonical chunk's light is final enough to copy.
+     */
+    @Inject(
+            method = "<init>(Lnet/minecraft/server/level/ServerLevel;Lnet/minecraft/world/level/chunk/ProtoChunk;Lnet/minecraft/world/level/chunk/LevelChunk$PostLoadProcessor;)V",
+            at = @At("TAIL")
+    )
+    private void captureCanonicalLight(ServerLevel level, ProtoChunk protoChunk, LevelChunk.PostLoadProcessor postLoad, CallbackInfo ci) {
+        if (level.getChunkSource().getGenerator() instanceof TorusChunkGenerator generator) {
+            generator.captureLight(level.getLightEngine(), protoChunk);
+        }
+    }
+
+    /**
+     * Post-processing (aquifer fluid updates etc.) is still generation.
+     * Anything that marks the chunk unsaved after this is a real modification.
+     *
+     * Edits mirrored while the chunk was not loaded — those newer than its
+     * edit stamp — are applied just before, so a chunk that only differs
+     * from generation by them stays pristine: its canonical chunk holds the
+     * same edits, and ChunkMapMixin compares the blocks before storing it as
+     * a reference. Copies that kept or lost a block entity holding items are
+     * not pristine.
+     */
+    @Inject(method = "postProcessGeneration", at = @At("TAIL"))
+    private void startTrackingEdits(CallbackInfo ci) {
+        if (this.level instanceof ServerLevel serverLevel) {
+            EditMirror.applyPending(serverLevel, (LevelChunk) (Object) this);
+        }
+        ((PristineChunk) this).worldsize$startTrackingEdits();
+    }
+
+    /**
+     * A block of a live chunk changed by a player or a command is mirrored to
+     * the other copies of its wrap class. Changes made by ticking are not.
+     */
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void mirrorEdit(BlockPos pos, BlockState state, int flags, CallbackInfoReturnable<BlockState> cir) {
+        if (EditMirror.isRecording() && cir.getReturnValue() != null && ((PristineChunk) this).worldsize$isTrackingEdits()
+                && this.level instanceof ServerLevel serverLevel) {
+            EditMirror.record(serverLevel, pos);
+        }
+    }
+}
@@ -1,41 +1,73 @@
 package base.worldsize.mixin;
 
-import base.worldsize.TorusChunkGenerator;
-import base.worldsize.WorldSize;
+import base.worldsize.BiomeAtlas;
+import base.worldsize.BiomeAtlasHolder;
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import base.worldsize.TorusMetrics;
+import base.worldsize.WorldSizeConfig;
 import net.minecraft.world.level.biome.Biome;
-import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.biome.Climate;
 import net.minecraft.core.Holder;
 import net.minecraft.world.level.biome.MultiNoiseBiomeSource;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
-import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+/**
+ * Wraps multi-noise biome lookups and serves them from the torus {@link BiomeAtlas}.
+ *
+ * Instead of re-entering getNoiseBiome(x, y, z, sampler) with wrapped coordinates
+ * (which needed a ThreadLocal recursion guard), we sample the climate at the
+ * wrapped position and resolve it through getNoiseBiome(TargetPoint) directly.
+ * When an atlas is installed, each wrapped quart is only ever resolved once.
+ *
+ * This is an @Overwrite rather than a cancellable HEAD inject: the vanilla
+ * body is the single line at the end of the method, and a cancellable inject
+ * would allocate a CallbackInfoReturnable on every biome query — the hottest
+ * call in createBiomes().
+ */
 @Mixin(MultiNoiseBiomeSource.class)
-public abstract class MultiNoiseBiomeSourceMixin {
+public abstract class MultiNoiseBiomeSourceMixin implements BiomeAtlasHolder {
 
     @Unique
-    private static final ThreadLocal<Boolean> worldsize$wrapping = ThreadLocal.withInitial(() -> false);
-
-    @Inject(method = "getNoiseBiome", at = @At("HEAD"), cancellable = true)
-    private void wrapBiomeCoordinates(int quartX, int quartY, int quartZ, Climate.Sampler sampler,
-                                      CallbackInfoReturnable<Holder<Biome>> cir) {
-        if (TorusChunkGenerator.isTorusActive() && !worldsize$wrapping.get()) {
-            int quartSize = WorldSize.WORLD_SIZE_BLOCKS >> 2;
-            int wrappedX = Math.floorMod(quartX, quartSize);
-            int wrappedZ = Math.floorMod(quartZ, quartSize);
-
-            if (wrappedX != quartX || wrappedZ != quartZ) {
-                worldsize$wrapping.set(true);
-                try {
-                    Holder<Biome> result = ((BiomeSource)(Object)this).getNoiseBiome(wrappedX, quartY, wrappedZ, sampler);
-                    cir.setReturnValue(result);
-                } finally {
-                    worldsize$wrapping.set(false);
-                }
-            }
+    private BiomeAtlas worldsize$atlas;
+
+    @Shadow
+    public abstract Holder<Biome> getNoiseBiome(Climate.TargetPoint targetPoint);
+
+    @Override
+    public void worldsize$setBiomeAtlas(BiomeAtlas atlas) {
+        this.worldsize$atlas = atlas;
+    }
+
+    /**
+     * @author WorldSize
+     * @reason Wrap quart coordinates and serve lookups from the biome atlas without a per-call callback object.
+     */
+    @Overwrite
+    public Holder<Biome> getNoiseBiome(int quartX, int quartY, int quartZ, Climate.Sampler sampler) {
+        TorusContext torus = ((TorusContextHolder) this).worldsize$torus();
+        if (torus == null) {
+            return this.getNoiseBiome(sampler.sample(quartX, quartY, quartZ));
+        }
+
+        int wrappedX = torus.wrapQuartX(quartX);
+        int wrappedZ = torus.wrapQuartZ(quartZ);
+        if (WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+            TorusMetrics.countWrap(TorusMetrics.WrapSite.BIOME_QUART);
+        }
+        BiomeAtlas atlas = this.worldsize$atlas;
+        if (atlas == null) {
+            return this.getNoiseBiome(sampler.sample(wrappedX, quartY, wrappedZ));
+        }
+
+        Holder<Biome> biome = atlas.get(wrappedX, quartY, wrappedZ);
+        if (biome == null) {
+            biome = this.getNoiseBiome(sampler.sample(wrappedX, quartY, wrappedZ));
+            atlas.put(wrappedX, quartY, wrappedZ, biome);
         }
+        return biome;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package base.worldsize.mixin;
+
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import base.worldsize.TorusGenerationExecutor;
+import net.minecraft.util.thread.TracingExecutor;
+import net.minecraft.world.level.StructureManager;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.blending.Blender;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the async stages of a torus generator's delegate on the dedicated
+ * {@link TorusGenerationExecutor}, when it is enabled. Plain noise
+ * generators (no torus context) keep vanilla's background executor.
+ */
+@Mixin(NoiseBasedChunkGenerator.class)
+public abstract class NoiseBasedChunkGeneratorMixin {
+
+    @Redirect(
+            method = "createBiomes",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/util/thread/TracingExecutor;forName(Ljava/lang/String;)Ljava/util/concurrent/Executor;"
+            )
+    )
+    private Executor torusCreateBiomesExecutor(TracingExecutor executor, String name, RandomState randomState,
+                                               Blender blender, StructureManager structureManager, ChunkAccess chunk) {
+        return worldsize$executorFor(executor, name, chunk);
+    }
+
+    @Redirect(
+            method = "fillFromNoise",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/util/thread/TracingExecutor;forName(Ljava/lang/String;)Ljava/util/concurrent/Executor;"
+            )
+    )
+    private Executor torusFillFromNoiseExecutor(TracingExecutor executor, String name, Blender blender,
+                                                RandomState randomState, StructureManager structureManager, ChunkAccess chunk) {
+        return worldsize$executorFor(executor, name, chunk);
+    }
+
+    @Unique
+    private Executor worldsize$executorFor(TracingExecutor executor, String name, ChunkAccess chunk) {
+        TorusContext torus = ((TorusContextHolder) this).worldsize$torus();
+        if (torus == null || !TorusGenerationExecutor.isEnabled()) {
+            return executor.forName(name);
+        }
+        return TorusGenerationExecutor.forChunk(torus, chunk.getPos());
+    }
+}
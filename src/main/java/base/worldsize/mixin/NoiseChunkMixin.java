@@ -1,7 +1,9 @@
 package base.worldsize.mixin;
 
-import base.worldsize.TorusChunkGenerator;
-import base.worldsize.WorldSize;
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import base.worldsize.TorusMetrics;
+import base.worldsize.WorldSizeConfig;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.levelgen.NoiseChunk;
@@ -46,6 +48,11 @@ import org.spongepowered.asm.mixin.injection.Redirect;
  * FluidPicker setup, etc.) consistently sees wrapped coordinates. This is both
  * safer (unambiguous target) and more thorough (wraps everything, not just
  * two constructor params).
+ *
+ * The torus context comes from the chunk itself (bound by TorusChunkGenerator
+ * before any NoiseChunk is created for it), so it is read exactly once per
+ * NoiseChunk and chunks of non-torus dimensions are never wrapped. Aliases
+ * share their wrap class's ChunkPos instead of allocating a new one.
  */
 @Mixin(NoiseChunk.class)
 public abstract class NoiseChunkMixin {
@@ -72,15 +79,13 @@ public abstract class NoiseChunkMixin {
             )
     )
     private static ChunkPos wrapChunkPosInForChunk(ChunkAccess chunk) {
-        if (TorusChunkGenerator.isTorusActive()) {
-            ChunkPos real = chunk.getPos();
-            int wrappedChunkX = WorldSize.wrapChunk(real.x);
-            int wrappedChunkZ = WorldSize.wrapChunk(real.z);
-            if (wrappedChunkX != real.x || wrappedChunkZ != real.z) {
-                return new ChunkPos(wrappedChunkX, wrappedChunkZ);
-            }
-            return real;
+        TorusContext torus = ((TorusContextHolder) chunk).worldsize$torus();
+        if (torus == null) {
+            return chunk.getPos();
+        }
+        if (WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+            TorusMetrics.countWrap(TorusMetrics.WrapSite.NOISE_CHUNK);
         }
-        return chunk.getPos();
+        return torus.canonicalPos(chunk.getPos());
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package base.worldsize.mixin;
+
+import base.worldsize.CanonicalChunkStore;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.StreamTagVisitor;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.storage.RegionFileStorage;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Routes canonical chunk reads, scans and writes of torus dimensions to the
+ * memory-mapped {@link CanonicalChunkStore}; everything else (aliases,
+ * oversized chunks, POI and entity storage) goes through region files.
+ *
+ * The store is resolved lazily on first use: RegionFileStorage is built
+ * inside the ServerLevel constructor, before the mod knows whether the
+ * level runs a torus generator.
+ */
+@Mixin(RegionFileStorage.class)
+public abstract class RegionFileStorageMixin {
+
+    @Shadow
+    @Final
+    private RegionStorageInfo info;
+
+    @Shadow
+    @Final
+    private Path folder;
+
+    @Unique
+    private CanonicalChunkStore worldsize$store;
+
+    @Unique
+    private boolean worldsize$storeResolved;
+
+    @Unique
+    private CanonicalChunkStore worldsize$store() {
+        if (!this.worldsize$storeResolved) {
+            this.worldsize$storeResolved = true;
+            this.worldsize$store = CanonicalChunkStore.open(this.info.dimension(), this.info.type(), this.folder);
+        }
+        return this.worldsize$store;
+    }
+
+    @Inject(method = "read(Lnet/minecraft/world/level/ChunkPos;)Lnet/minecraft/nbt/CompoundTag;", at = @At("HEAD"), cancellable = true)
+    private void readCanonicalStore(ChunkPos pos, CallbackInfoReturnable<CompoundTag> cir) throws IOException {
+        CanonicalChunkStore store = worldsize$store();
+        if (store != null && store.handles(pos)) {
+            CompoundTag tag = store.read(pos);
+            if (tag != null) {
+                cir.setReturnValue(tag);
+            }
+        }
+    }
+
+    /** Structure checks scan stored chunks instead of loading them (StructureCheck.tryLoadFromStorage). */
+    @Inject(method = "scanChunk", at = @At("HEAD"), cancellable = true)
+    private void scanCanonicalStore(ChunkPos pos, StreamTagVisitor visitor, CallbackInfo ci) throws IOException {
+        CanonicalChunkStore store = worldsize$store();
+        if (store != null && store.handles(pos) && store.scan(pos, visitor)) {
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "write(Lnet/minecraft/world/level/ChunkPos;Lnet/minecraft/nbt/CompoundTag;)V", at = @At("HEAD"), cancellable = true)
+    private void writeCanonicalStore(ChunkPos pos, CompoundTag tag, CallbackInfo ci) throws IOException {
+        CanonicalChunkStore store = worldsize$store();
+        if (store != null && store.handles(pos) && store.write(pos, tag)) {
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "flush", at = @At("TAIL"))
+    private void flushCanonicalStore(CallbackInfo ci) {
+        if (this.worldsize$store != null) {
+            this.worldsize$store.flush();
+        }
+    }
+
+    @Inject(method = "close", at = @At("TAIL"))
+    private void closeCanonicalStore(CallbackInfo ci) throws IOException {
+        if (this.worldsize$store != null) {
+            this.worldsize$store.close();
+            this.worldsize$store = null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package base.worldsize.mixin;
+
+import base.worldsize.EditStamped;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ai.village.poi.PoiManager;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ImposterProtoChunk;
+import net.minecraft.world.level.chunk.PalettedContainerFactory;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import net.minecraft.world.level.chunk.storage.SerializableChunkData;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Saves a chunk's mirrored-edit stamp with it and restores it on load, so a
+ * reloaded chunk only takes the edits made after it was last live (see
+ * {@link EditStamped}). Chunks without the tag — generated ones, and those
+ * saved without edit mirroring — start at 0 and take every edit once.
+ */
+@Mixin(SerializableChunkData.class)
+public abstract class SerializableChunkDataMixin implements EditStamped {
+
+    @Unique
+    private static final String EDIT_STAMP = "worldsize:edit_stamp";
+
+    @Unique
+    private long worldsize$editStamp;
+
+    @Override
+    public long worldsize$editStamp() {
+        return this.worldsize$editStamp;
+    }
+
+    @Override
+    public void worldsize$setEditStamp(long stamp) {
+        this.worldsize$editStamp = stamp;
+    }
+
+    @Inject(method = "copyOf", at = @At("RETURN"))
+    private static void copyEditStamp(ServerLevel level, ChunkAccess chunk, CallbackInfoReturnable<SerializableChunkData> cir) {
+        ((EditStamped) (Object) cir.getReturnValue()).worldsize$setEditStamp(((EditStamped) chunk).worldsize$editStamp());
+    }
+
+    @Inject(method = "write", at = @At("RETURN"))
+    private void writeEditStamp(CallbackInfoReturnable<CompoundTag> cir) {
+        if (this.worldsize$editStamp != 0) {
+            cir.getReturnValue().putLong(EDIT_STAMP, this.worldsize$editStamp);
+        }
+    }
+
+    @Inject(method = "parse", at = @At("RETURN"))
+    private static void parseEditStamp(LevelHeightAccessor level, PalettedContainerFactory containers, CompoundTag tag,
+                                       CallbackInfoReturnable<SerializableChunkData> cir) {
+        if (cir.getReturnValue() != null) {
+            ((EditStamped) (Object) cir.getReturnValue()).worldsize$setEditStamp(tag.getLongOr(EDIT_STAMP, 0L));
+        }
+    }
+
+    /** Full chunks are read as a LevelChunk behind an ImposterProtoChunk; the stamp goes on the LevelChunk. */
+    @Inject(method = "read", at = @At("RETURN"))
+    private void readEditStamp(ServerLevel level, PoiManager poiManager, RegionStorageInfo info, ChunkPos pos,
+                               CallbackInfoReturnable<ProtoChunk> cir) {
+        ChunkAccess chunk = cir.getReturnValue() instanceof ImposterProtoChunk imposter ? imposter.getWrapped() : cir.getReturnValue();
+        ((EditStamped) chunk).worldsize$setEditStamp(this.worldsize$editStamp);
+    }
+}
@@ -0,0 +1,38 @@
+package base.worldsize.mixin;
+
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import net.minecraft.server.level.ServerLevel;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Gives each ServerLevel the torus context of its generator (null for
+ * non-torus dimensions), so per-entity and per-tick checks can ask the level
+ * directly instead of going through its chunk source.
+ */
+@Mixin(ServerLevel.class)
+public abstract class ServerLevelMixin implements TorusContextHolder {
+
+    @Unique
+    private TorusContext worldsize$torus;
+
+    @Override
+    public TorusContext worldsize$torus() {
+        return this.worldsize$torus;
+    }
+
+    @Override
+    public void worldsize$setTorus(TorusContext torus) {
+        this.worldsize$torus = torus;
+    }
+
+    @Inject(method = "<init>", at = @At("TAIL"))
+    private void captureTorus(CallbackInfo ci) {
+        ServerLevel level = (ServerLevel) (Object) this;
+        this.worldsize$torus = ((TorusContextHolder) level.getChunkSource().getGenerator()).worldsize$torus();
+    }
+}
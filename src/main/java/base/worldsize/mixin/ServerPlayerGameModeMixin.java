@@ -0,0 +1,28 @@
+package base.worldsize.mixin;
+
+import base.worldsize.EditMirror;
+import net.minecraft.server.level.ServerPlayerGameMode;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Marks what a player breaks, places or uses as an explicit edit, so the
+ * blocks it changes — the block itself and whatever it takes along, like a
+ * torch on a broken wall or the other half of a door — are mirrored to the
+ * other copies of their wrap class (see {@link EditMirror}).
+ */
+@Mixin(ServerPlayerGameMode.class)
+public abstract class ServerPlayerGameModeMixin {
+
+    @Inject(method = {"destroyBlock", "useItemOn", "useItem"}, at = @At("HEAD"))
+    private void beginExplicitEdit(CallbackInfoReturnable<?> cir) {
+        EditMirror.beginExplicitEdit();
+    }
+
+    @Inject(method = {"destroyBlock", "useItemOn", "useItem"}, at = @At("RETURN"))
+    private void endExplicitEdit(CallbackInfoReturnable<?> cir) {
+        EditMirror.endExplicitEdit();
+    }
+}
@@ -1,10 +1,15 @@
 package base.worldsize.mixin;
 
-import base.worldsize.TorusChunkGenerator;
-import base.worldsize.WorldSize;
+import base.worldsize.TorusContext;
+import base.worldsize.TorusContextHolder;
+import base.worldsize.TorusMetrics;
+import base.worldsize.WorldSizeConfig;
+import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.levelgen.SurfaceRules;
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -20,7 +25,10 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
  * KEY: Inject at TAIL (not HEAD), because the original method sets blockX/blockZ
  * from its parameters. Injecting at HEAD would get overwritten.
  *
- * Uses WORLD_SIZE_BLOCKS (block coordinates), NOT WORLD_SIZE_BLOCKS >> 2 (quart).
+ * Uses block coordinates, NOT quart coordinates.
+ *
+ * The torus context is captured from the chunk once, when the Context is
+ * created — updateXZ() runs for every column and only reads the field.
  */
 @Mixin(targets = "net.minecraft.world.level.levelgen.SurfaceRules$Context")
 public abstract class SurfaceRulesContextMixin {
@@ -31,11 +39,27 @@ public abstract class SurfaceRulesContextMixin {
     @Shadow
     protected int blockZ;
 
+    @Shadow
+    @Final
+    ChunkAccess chunk;
+
+    @Unique
+    private TorusContext worldsize$torus;
+
+    @Inject(method = "<init>", at = @At("TAIL"))
+    private void captureTorus(CallbackInfo ci) {
+        this.worldsize$torus = ((TorusContextHolder) this.chunk).worldsize$torus();
+    }
+
     @Inject(method = "updateXZ", at = @At("TAIL"))
     private void wrapUpdateXZ(int x, int z, CallbackInfo ci) {
-        if (TorusChunkGenerator.isTorusActive()) {
-            this.blockX = WorldSize.wrapBlock(this.blockX);
-            this.blockZ = WorldSize.wrapBlock(this.blockZ);
+        TorusContext torus = this.worldsize$torus;
+        if (torus != null) {
+            if (WorldSizeConfig.METRICS_WRAP_COUNTERS) {
+                TorusMetrics.countWrap(TorusMetrics.WrapSite.SURFACE_COLUMN);
+            }
+            this.blockX = torus.wrapBlockX(this.blockX);
+            this.blockZ = torus.wrapBlockZ(this.blockZ);
         }
     }
 }
\ No newline at end of file
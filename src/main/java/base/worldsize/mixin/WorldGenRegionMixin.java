@@ -0,0 +1,85 @@
+package base.worldsize.mixin;
+
+import base.worldsize.DecorationRecord;
+import base.worldsize.DecorationRecorder;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.server.level.WorldGenRegion;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.ticks.LevelTickAccess;
+import net.minecraft.world.ticks.WorldGenTickAccess;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.Map;
+
+/**
+ * Records the writes of one chunk's decoration for replay onto its aliases.
+ *
+ * Installing a recorder copies the 3×3 chunks around the decorated chunk;
+ * stopping it diffs them, which also catches writes that bypass setBlock
+ * (BulkSectionAccess). While it is installed, scheduled ticks go through a
+ * recording tick access and adding an entity discards the record. With no
+ * recorder installed (every region except the one decorating a canonical
+ * chunk), each hook is a single null check.
+ */
+@Mixin(WorldGenRegion.class)
+public abstract class WorldGenRegionMixin implements DecorationRecorder {
+
+    @Shadow
+    @Final
+    private WorldGenTickAccess<Block> blockTicks;
+
+    @Shadow
+    @Final
+    private WorldGenTickAccess<Fluid> fluidTicks;
+
+    @Unique
+    private DecorationRecord.Recorder worldsize$recorder;
+
+    @Override
+    public void worldsize$startRecording(ChunkPos origin) {
+        WorldGenRegion region = (WorldGenRegion) (Object) this;
+        this.worldsize$recorder = new DecorationRecord.Recorder(region, origin,
+                region.getLevelData().getGameTime(), this.blockTicks, this.fluidTicks);
+    }
+
+    @Override
+    public DecorationRecord worldsize$stopRecording(Map<Structure, LongSet> wrappedReferences) {
+        DecorationRecord.Recorder recorder = this.worldsize$recorder;
+        this.worldsize$recorder = null;
+        return recorder != null ? recorder.finish((WorldGenRegion) (Object) this, wrappedReferences) : null;
+    }
+
+    @Inject(method = "addFreshEntity", at = @At("HEAD"))
+    private void discardOnEntity(Entity entity, CallbackInfoReturnable<Boolean> cir) {
+        DecorationRecord.Recorder recorder = this.worldsize$recorder;
+        if (recorder != null) {
+            recorder.discard();
+        }
+    }
+
+    @Inject(method = "getBlockTicks", at = @At("HEAD"), cancellable = true)
+    private void recordBlockTicks(CallbackInfoReturnable<LevelTickAccess<Block>> cir) {
+        DecorationRecord.Recorder recorder = this.worldsize$recorder;
+        if (recorder != null) {
+            cir.setReturnValue(recorder.blockTicks());
+        }
+    }
+
+    @Inject(method = "getFluidTicks", at = @At("HEAD"), cancellable = true)
+    private void recordFluidTicks(CallbackInfoReturnable<LevelTickAccess<Fluid>> cir) {
+        DecorationRecord.Recorder recorder = this.worldsize$recorder;
+        if (recorder != null) {
+            cir.setReturnValue(recorder.fluidTicks());
+        }
+    }
+}